@@ -0,0 +1,23 @@
+package dereck.angeles.config;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how many virtual threads run the annotated methods at once, so
+ * they queue for a permit instead of for a JDBC connection. Put it on
+ * service methods that only do database work; a method that also hashes
+ * passwords or calls S3 would hold the permit through that, so it takes one
+ * from {@link DatabasePermits} around its queries instead.
+ *
+ * @see DatabaseBulkheadInterceptor
+ */
+@InterceptorBinding
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DatabaseBulkhead {
+}
@@ -0,0 +1,42 @@
+package dereck.angeles.config;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Caps concurrent {@link DatabaseBulkhead} invocations on virtual threads at
+ * {@code app.virtual-threads.db-permits}, which is kept below the JDBC pool
+ * size so the background schedulers still find a connection.
+ * <p>
+ * On the worker pool the number of threads already bounds database
+ * concurrency. Virtual threads are unbounded, and without a limit a burst of
+ * requests would pile up inside the connection pool until its acquisition
+ * timeout fails them. Waiting here is cheap for a virtual thread; a caller
+ * that gets no permit within {@code app.virtual-threads.db-acquire-timeout}
+ * receives 503 with {@code Retry-After}. Runs before the transaction
+ * interceptor, so a waiting request holds no connection.
+ *
+ * @see DatabasePermits
+ */
+@DatabaseBulkhead
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class DatabaseBulkheadInterceptor {
+
+    // Interceptor instances are created per intercepted bean, so the semaphore lives in its own bean
+    @Inject
+    DatabasePermits permits;
+
+    @AroundInvoke
+    Object limit(InvocationContext context) throws Exception {
+        boolean acquired = permits.acquire();
+        try {
+            return context.proceed();
+        } finally {
+            permits.release(acquired);
+        }
+    }
+}
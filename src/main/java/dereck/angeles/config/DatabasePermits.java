@@ -0,0 +1,88 @@
+package dereck.angeles.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The permits behind {@link DatabaseBulkhead}. Methods that do slow work
+ * besides their queries (password hashing, S3 calls) use {@link #call} and
+ * {@link #run} directly so they hold a permit only around the database part.
+ * <p>
+ * Only virtual threads take permits, and a thread that already holds one
+ * doesn't take a second, so bulkheaded code may call other bulkheaded code.
+ */
+@ApplicationScoped
+public class DatabasePermits {
+
+    private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+    @ConfigProperty(name = "app.virtual-threads.db-permits", defaultValue = "12")
+    int permits;
+
+    @ConfigProperty(name = "app.virtual-threads.db-acquire-timeout", defaultValue = "PT5S")
+    Duration acquireTimeout;
+
+    private Semaphore semaphore;
+
+    @PostConstruct
+    void init() {
+        semaphore = new Semaphore(permits, true);
+    }
+
+    /**
+     * @throws ServiceUnavailableException (503 with {@code Retry-After}) if
+     *                                     no permit was free within
+     *                                     {@code app.virtual-threads.db-acquire-timeout}
+     */
+    public <T> T call(Supplier<T> work) {
+        boolean acquired = acquire();
+        try {
+            return work.get();
+        } finally {
+            release(acquired);
+        }
+    }
+
+    public void run(Runnable work) {
+        boolean acquired = acquire();
+        try {
+            work.run();
+        } finally {
+            release(acquired);
+        }
+    }
+
+    /**
+     * @return {@code true} if a permit was taken and must be passed back to
+     * {@link #release(boolean)}
+     */
+    boolean acquire() {
+        if (!Thread.currentThread().isVirtual() || HOLDING.get() != null) {
+            return false;
+        }
+        try {
+            if (!semaphore.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException(1L);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(1L);
+        }
+        HOLDING.set(Boolean.TRUE);
+        return true;
+    }
+
+    void release(boolean acquired) {
+        if (acquired) {
+            HOLDING.remove();
+            semaphore.release();
+        }
+    }
+}
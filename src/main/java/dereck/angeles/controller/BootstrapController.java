@@ -0,0 +1,63 @@
+package dereck.angeles.controller;
+
+import dereck.angeles.dto.BootstrapDto;
+import dereck.angeles.service.ReferenceDataRegistry;
+import dereck.angeles.service.ReferenceDataSnapshot;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * The BootstrapController serves all reference data the interview setup
+ * screen needs (topics, languages and difficulties) in one request.
+ * <p>
+ * The payload carries a {@code version} that is also its ETag. Clients that
+ * already hold a version can send it as {@code ?version=} or
+ * {@code If-None-Match} and get a 304 with no body.
+ */
+@Path("/bootstrap")
+public class BootstrapController {
+
+	private final ReferenceDataRegistry referenceDataRegistry;
+	private final CacheControl cacheControl;
+
+	@Inject
+	public BootstrapController(ReferenceDataRegistry referenceDataRegistry,
+														 @ConfigProperty(name = "app.reference-data.max-age", defaultValue = "300")
+														 int maxAgeSeconds) {
+		this.referenceDataRegistry = referenceDataRegistry;
+		this.cacheControl = CachedResponses.cacheControl(maxAgeSeconds);
+	}
+
+	/**
+	 * @return the pre-serialized {@link BootstrapDto} (gzip when accepted), or
+	 * 304 if the client's version is current
+	 */
+	@GET
+	@NonBlocking
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response getBootstrap(@Context Request request,
+			@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+			@QueryParam("version") String clientVersion) {
+		ReferenceDataSnapshot snapshot = referenceDataRegistry.snapshot();
+		if (snapshot.bootstrapVersion().equals(clientVersion)) {
+			return Response.notModified(new EntityTag(snapshot.bootstrapVersion()))
+										 .cacheControl(cacheControl)
+										 .build();
+		}
+		return CachedResponses.conditional(request, acceptEncoding, cacheControl,
+					snapshot.bootstrapBody());
+	}
+}
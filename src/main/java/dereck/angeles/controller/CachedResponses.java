@@ -0,0 +1,84 @@
+package dereck.angeles.controller;
+
+import dereck.angeles.service.EncodedBody;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Helpers for endpoints that serve cacheable reference data.
+ * <p>
+ * Bodies are pre-encoded {@link EncodedBody} instances: the variant is
+ * picked from {@code Accept-Encoding}, a matching {@code If-None-Match}
+ * short-circuits to 304, and otherwise the stored bytes are written as is.
+ */
+final class CachedResponses {
+
+	private CachedResponses() {
+	}
+
+	static CacheControl cacheControl(int maxAgeSeconds) {
+		CacheControl cacheControl = new CacheControl();
+		cacheControl.setMaxAge(maxAgeSeconds);
+		cacheControl.setNoTransform(false);
+		return cacheControl;
+	}
+
+	static Response conditional(Request request, String acceptEncoding,
+															CacheControl cacheControl, EncodedBody body) {
+		boolean gzip = acceptsGzip(acceptEncoding);
+		EntityTag tag = new EntityTag(gzip ? body.gzipEtag() : body.etag());
+		Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+		if (notModified != null) {
+			return notModified.tag(tag)
+												.cacheControl(cacheControl)
+												.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+												.build();
+		}
+		Response.ResponseBuilder ok = Response.ok(gzip ? body.gzip() : body.identity(),
+																							MediaType.APPLICATION_JSON_TYPE)
+																					.tag(tag)
+																					.cacheControl(cacheControl)
+																					.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return ok.build();
+	}
+
+	/**
+	 * True if {@code Accept-Encoding} lists gzip (or {@code *}) without
+	 * {@code q=0}.
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+			return false;
+		}
+		for (String part : acceptEncoding.split(",")) {
+			String[] params = part.split(";");
+			String coding = params[0].trim();
+			if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+				continue;
+			}
+			for (int i = 1; i < params.length; i++) {
+				String param = params[i].trim();
+				if (param.startsWith("q=") && isZero(param.substring(2))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean isZero(String quality) {
+		try {
+			return Double.parseDouble(quality) == 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+}
@@ -1,30 +1,62 @@
 package dereck.angeles.controller;
 
+import dereck.angeles.dto.AnswerAckDto;
+import dereck.angeles.dto.AnswerSubmissionDto;
+import dereck.angeles.dto.FeedbackStatusDto;
 import dereck.angeles.dto.FileUploadResponseDto;
 import dereck.angeles.dto.InterviewDto;
+import dereck.angeles.dto.InterviewHistoryPageDto;
+import dereck.angeles.dto.QuestionDto;
+import dereck.angeles.model.FeedbackJob;
 import dereck.angeles.model.File;
 import dereck.angeles.model.Interview;
+import dereck.angeles.service.AnswerIngestionService;
+import dereck.angeles.service.FeedbackPipelineService;
 import dereck.angeles.service.FileStorageService;
+import dereck.angeles.service.IdempotencyService;
 import dereck.angeles.service.InterviewService;
+import dereck.angeles.service.RecordingIngestService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.security.Authenticated;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.common.annotation.NonBlocking;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.jboss.resteasy.reactive.RestForm;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.jboss.resteasy.plugins.providers.multipart.MultipartFormDataInput;
-import org.jboss.resteasy.plugins.providers.multipart.InputPart;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 
 @Path("/interview")
 public class InterviewController {
+	private static final Logger logger = LoggerFactory.getLogger(InterviewController.class);
 
 	@Inject
 	InterviewService interviewService;
@@ -32,54 +64,133 @@ public class InterviewController {
 	@Inject
 	FileStorageService fileStorageService;
 
+	@Inject
+	AnswerIngestionService answerIngestionService;
+
+	@Inject
+	RecordingIngestService recordingIngestService;
+
+	@Inject
+	FeedbackPipelineService feedbackPipelineService;
+
+	@Inject
+	IdempotencyService idempotencyService;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	private ObjectReader createRequestReader;
+
+	@Inject
+	SecurityIdentity securityIdentity;
+
+	@Inject
+	@VirtualThreads
+	ExecutorService virtualThreads;
+
+	@PostConstruct
+	void init() {
+		createRequestReader = objectMapper.readerFor(InterviewCreateRequest.class);
+	}
+
+	/**
+	 * Creates an interview, uploading the optional resume. Clients that retry
+	 * should send an {@code Idempotency-Key} header: a retry with the same key
+	 * gets the stored response of the first successful request instead of
+	 * creating a second interview and uploading the resume again. Reusing a
+	 * key with a different {@code data} part or resume is rejected with 422.
+	 */
 	@POST
 	@Path("/create")
 	@Consumes(MediaType.MULTIPART_FORM_DATA)
 	@Produces(MediaType.APPLICATION_JSON)
-	@Transactional
-	public Response createInterview(MultipartFormDataInput input) {
-		System.out.println("🚀 Interview creation request received!");
-		System.out.println("📝 Request content type: multipart/form-data");
-		
+	@Authenticated
+	@RunOnVirtualThread
+	public Response createInterview(@HeaderParam(IdempotencyService.HEADER) String idempotencyKey,
+																	@BeanParam CreateInterviewForm form) {
+		if (idempotencyKey == null || idempotencyKey.isBlank()) {
+			return QuarkusTransaction.requiringNew().call(() -> createInterviewOnce(form));
+		}
+		if (idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("{\"error\": \"Idempotency-Key is too long\"}")
+					.build();
+		}
+		UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
 		try {
-			Map<String, List<InputPart>> uploadForm = input.getFormDataMap();
-			System.out.println("📦 Form parts received: " + uploadForm.keySet());
+			IdempotencyService.IdempotentResponse result = idempotencyService.execute(
+					"interview-create", userId, idempotencyKey, requestHash(form), () -> {
+						Response response = QuarkusTransaction.requiringNew().call(() -> createInterviewOnce(form));
+						return new IdempotencyService.IdempotentResponse(
+								response.getStatus(), toJson(response.getEntity()), false);
+					});
+			return Response.status(result.status())
+					.entity(result.body())
+					.type(MediaType.APPLICATION_JSON)
+					.header(IdempotencyService.REPLAYED_HEADER, result.replayed())
+					.build();
+		} catch (IdempotencyService.KeyReusedException e) {
+			return Response.status(422)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		} catch (IllegalStateException e) {
+			return Response.status(Response.Status.CONFLICT)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		}
+	}
+
+	/**
+	 * Hash of the {@code data} part and the resume's name and content; the
+	 * resume is streamed from its temporary file.
+	 */
+	private static String requestHash(CreateInterviewForm form) {
+		byte[] data = form.data == null ? new byte[0] : form.data.getBytes(StandardCharsets.UTF_8);
+		FileUpload resume = form.resume;
+		if (resume == null) {
+			return IdempotencyService.hashRequest(data);
+		}
+		MessageDigest digest = IdempotencyService.sha256();
+		try (InputStream in = new DigestInputStream(Files.newInputStream(resume.uploadedFile()), digest)) {
+			in.transferTo(OutputStream.nullOutputStream());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		String fileName = resume.fileName() == null ? "" : resume.fileName();
+		return IdempotencyService.hashRequest(data, fileName.getBytes(StandardCharsets.UTF_8), digest.digest());
+	}
 
+	private Response createInterviewOnce(CreateInterviewForm form) {
+		try {
 			// Extract JSON data
-			List<InputPart> dataParts = uploadForm.get("data");
-			if (dataParts == null || dataParts.isEmpty()) {
-				System.err.println("❌ Missing 'data' field in form");
+			if (form.data == null || form.data.isBlank()) {
 				return Response.status(Response.Status.BAD_REQUEST)
 						.entity("{\"error\": \"Missing data field\"}")
 						.build();
 			}
 
-			String dataJson = dataParts.get(0).getBodyAsString();
-			ObjectMapper mapper = new ObjectMapper();
-			InterviewCreateRequest createRequest = mapper.readValue(dataJson, InterviewCreateRequest.class);
+			InterviewCreateRequest createRequest = createRequestReader.readValue(form.data);
+
+			// The interview always belongs to the caller; the token subject is the user id
+			String principalUserId = securityIdentity.getPrincipal().getName();
+			if (createRequest.userId != null && !createRequest.userId.equals(principalUserId)) {
+				return Response.status(Response.Status.FORBIDDEN)
+						.entity("{\"error\": \"userId does not match the authenticated user\"}")
+						.build();
+			}
+			createRequest.userId = principalUserId;
 
-			// Handle resume file upload if present
+			// Handle resume file upload if present; the part was streamed to a temporary file
 			String resumeFileId = null;
-			List<InputPart> resumeParts = uploadForm.get("resume");
-			System.out.println("📁 Resume parts: " + (resumeParts != null ? resumeParts.size() + " found" : "none"));
-			if (resumeParts != null && !resumeParts.isEmpty()) {
-				InputPart resumePart = resumeParts.get(0);
-				String filename = getFileName(resumePart);
-				String contentType = resumePart.getMediaType().toString();
-				
-				try (InputStream inputStream = resumePart.getBody(InputStream.class, null)) {
-					// Get file size (you might need to read the stream to calculate this)
-					byte[] fileBytes = inputStream.readAllBytes();
-					Long fileSize = (long) fileBytes.length;
-					
-					// Create new InputStream from bytes
-					InputStream uploadStream = new java.io.ByteArrayInputStream(fileBytes);
-					
+			FileUpload resume = form.resume;
+			logger.debug("Resume part: {}", resume != null ? resume.fileName() : "none");
+			if (resume != null) {
+				try (InputStream uploadStream = Files.newInputStream(resume.uploadedFile())) {
 					FileUploadResponseDto uploadResult = fileStorageService.uploadFile(
 						uploadStream,
-						filename,
-						contentType,
-						fileSize,
+						resume.fileName() == null ? "unknown-file" : resume.fileName(),
+						resume.contentType(),
+						resume.size(),
 						File.FileType.RESUME,
 						createRequest.userId
 					);
@@ -117,29 +228,242 @@ public class InterviewController {
 			InterviewCreateResponse response = new InterviewCreateResponse(
 				interview.getId().toString(),
 				resumeFileId,
+				interview.getSkills(),
 				"Interview created successfully"
 			);
 
 			return Response.ok(response).build();
 
 		} catch (Exception e) {
-			e.printStackTrace();
+			logger.warn("Interview creation failed", e);
 			return Response.status(Response.Status.BAD_REQUEST)
 					.entity("{\"error\": \"Error processing request: " + e.getMessage() + "\"}")
 					.build();
 		}
 	}
 
-	private String getFileName(InputPart part) {
-		String[] contentDispositionHeader = part.getHeaders().getFirst("Content-Disposition").split(";");
-		for (String name : contentDispositionHeader) {
-			if ((name.trim().startsWith("filename"))) {
-				String[] tmp = name.split("=");
-				String fileName = tmp[1].trim().replaceAll("\"", "");
-				return fileName;
+	/**
+	 * Runs on the event loop; only the query is handed to a virtual thread
+	 * (the worker pool when {@code quarkus.virtual-threads.enabled=false}),
+	 * so history reads don't occupy a thread while the request is parsed,
+	 * authenticated and serialized.
+	 */
+	@GET
+	@Path("/history")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	@NonBlocking
+	public Uni<Response> getHistory(@QueryParam("cursor") String cursor,
+																	@QueryParam("limit") @DefaultValue("20") int limit) {
+		UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+		return Uni.createFrom()
+				.item(() -> QuarkusTransaction.requiringNew()
+						.call(() -> interviewService.getHistory(userId, cursor, limit)))
+				.runSubscriptionOn(virtualThreads)
+				.map(page -> Response.ok(page).build())
+				.onFailure(IllegalArgumentException.class)
+				.recoverWithItem(e -> Response.status(Response.Status.BAD_REQUEST)
+						.entity("{\"error\": \"" + e.getMessage() + "\"}")
+						.build());
+	}
+
+	@POST
+	@Path("/{id}/questions")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	@RunOnVirtualThread
+	public Response assignQuestions(@PathParam("id") UUID interviewId,
+																	@QueryParam("count") @DefaultValue("5") int count,
+																	@QueryParam("relevant") @DefaultValue("false") boolean relevant) {
+		try {
+			UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+			List<QuestionDto> questions = interviewService.assignQuestions(interviewId, userId, count, relevant);
+			return Response.ok(questions).build();
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.NOT_FOUND)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		}
+	}
+
+	/**
+	 * Accepts one or more (partial) answers. Answers are buffered and
+	 * acknowledged with 202; pass {@code durable=true} to wait until they are
+	 * written.
+	 */
+	@POST
+	@Path("/{id}/answers")
+	@Consumes(MediaType.APPLICATION_JSON)
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	@RunOnVirtualThread
+	public Response submitAnswers(@PathParam("id") UUID interviewId,
+																@QueryParam("durable") @DefaultValue("false") boolean durable,
+																List<AnswerSubmissionDto> answers) {
+		if (answers == null || answers.isEmpty()) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("{\"error\": \"No answers provided\"}")
+					.build();
+		}
+		try {
+			UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+			AnswerAckDto ack = answerIngestionService.submit(interviewId, userId, answers, durable);
+			return Response.status(ack.durable() ? Response.Status.OK : Response.Status.ACCEPTED)
+					.entity(ack)
+					.build();
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.NOT_FOUND)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		} catch (RuntimeException e) {
+			return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+					.entity("{\"error\": \"Answers could not be saved, retry later\"}")
+					.build();
+		}
+	}
+
+	/**
+	 * Appends a MediaRecorder chunk to the interview recording. Chunks must be
+	 * sent in order; {@code seq} lets the server skip retried chunks. Each
+	 * chunk is one request, so it is capped at
+	 * {@code quarkus.http.limits.max-body-size}; {@code app.recording.max-size}
+	 * bounds the whole recording. Only the first chunk touches the database,
+	 * and it holds a database permit just for that lookup, not while the body
+	 * is read from the client.
+	 */
+	@POST
+	@Path("/{id}/recording/chunks")
+	@Consumes(MediaType.WILDCARD)
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	@RunOnVirtualThread
+	public Response appendRecording(@PathParam("id") UUID interviewId,
+																	@QueryParam("seq") long sequence,
+																	@HeaderParam("Content-Type") String contentType,
+																	InputStream body) {
+		try {
+			UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+			long received = recordingIngestService.append(interviewId, userId, contentType, sequence, body);
+			return Response.ok(Map.of("received", received)).build();
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.NOT_FOUND)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		} catch (IllegalStateException e) {
+			return Response.status(Response.Status.CONFLICT)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		} catch (Exception e) {
+			return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+					.entity("{\"error\": \"Recording chunk could not be stored, retry later\"}")
+					.build();
+		}
+	}
+
+	@POST
+	@Path("/{id}/recording/complete")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	@RunOnVirtualThread
+	public Response completeRecording(@PathParam("id") UUID interviewId) {
+		try {
+			UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+			String videoUrl = recordingIngestService.complete(interviewId, userId);
+			if (videoUrl == null) {
+				return Response.status(Response.Status.NOT_FOUND)
+						.entity("{\"error\": \"No recording in progress\"}")
+						.build();
+			}
+			return Response.ok(Map.of("videoUrl", videoUrl)).build();
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.NOT_FOUND)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		}
+	}
+
+	/**
+	 * Feedback job status; includes the feedback once it is {@code DONE}.
+	 * Answers 202 while the job is queued or running, 200 once it is done and
+	 * 500 once it has failed for good.
+	 */
+	@GET
+	@Path("/{id}/feedback")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	@RunOnVirtualThread
+	public Response getFeedback(@PathParam("id") UUID interviewId) {
+		UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+		FeedbackStatusDto status = feedbackPipelineService.status(interviewId, userId);
+		if (status == null) {
+			return Response.status(Response.Status.NOT_FOUND)
+					.entity("{\"error\": \"Feedback not found\"}")
+					.build();
+		}
+		Response.Status httpStatus = switch (FeedbackJob.Status.valueOf(status.status())) {
+			case DONE -> Response.Status.OK;
+			// Retries are exhausted; the body carries lastError
+			case FAILED -> Response.Status.INTERNAL_SERVER_ERROR;
+			case QUEUED, RUNNING -> Response.Status.ACCEPTED;
+		};
+		return Response.status(httpStatus)
+				.entity(status)
+				.build();
+	}
+
+	/**
+	 * Server-sent events with the feedback job status; the stream ends once
+	 * the job is done or failed.
+	 */
+	@GET
+	@Path("/{id}/feedback/events")
+	@Produces(MediaType.SERVER_SENT_EVENTS)
+	@Authenticated
+	@RunOnVirtualThread
+	public void feedbackEvents(@PathParam("id") UUID interviewId,
+														 @Context SseEventSink sink,
+														 @Context Sse sse) {
+		UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+		FeedbackPipelineService.Listener listener = new FeedbackPipelineService.Listener() {
+			@Override
+			public boolean isClosed() {
+				return sink.isClosed();
+			}
+
+			@Override
+			public void onStatus(FeedbackStatusDto status) {
+				if (!sink.isClosed()) {
+					sink.send(sse.newEventBuilder()
+							.name("status")
+							.mediaType(MediaType.APPLICATION_JSON_TYPE)
+							.data(FeedbackStatusDto.class, status)
+							.build());
+				}
+			}
+
+			@Override
+			public void close() {
+				sink.close();
 			}
+		};
+		try {
+			feedbackPipelineService.subscribe(interviewId, userId, listener);
+		} catch (IllegalArgumentException e) {
+			sink.send(sse.newEventBuilder().name("error").data(e.getMessage()).build());
+			sink.close();
 		}
-		return "unknown-file";
+	}
+
+	/**
+	 * Parts of {@code POST /interview/create}: {@code data} is the
+	 * {@link InterviewCreateRequest} JSON, {@code resume} an optional file.
+	 */
+	public static class CreateInterviewForm {
+		@RestForm("data")
+		public String data;
+
+		@RestForm("resume")
+		public FileUpload resume;
 	}
 
 	// Request DTO for parsing JSON data
@@ -152,15 +476,29 @@ public class InterviewController {
 		public Integer yearsOfExperience;
 	}
 
+	private String toJson(Object entity) {
+		if (entity == null || entity instanceof String) {
+			return (String) entity;
+		}
+		try {
+			return objectMapper.writeValueAsString(entity);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 	// Response DTO
 	public static class InterviewCreateResponse {
 		public String interviewId;
 		public String resumeFileId;
+		public List<String> skills;
 		public String message;
 
-		public InterviewCreateResponse(String interviewId, String resumeFileId, String message) {
+		public InterviewCreateResponse(String interviewId, String resumeFileId, List<String> skills,
+																	 String message) {
 			this.interviewId = interviewId;
 			this.resumeFileId = resumeFileId;
+			this.skills = skills;
 			this.message = message;
 		}
 	}
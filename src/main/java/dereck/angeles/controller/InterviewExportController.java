@@ -0,0 +1,65 @@
+package dereck.angeles.controller;
+
+import dereck.angeles.service.InterviewExportService;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Admin export of interviews joined with feedback.
+ * <p>
+ * The response is written with chunked transfer encoding while rows are
+ * read from the database, so exports of any size use constant memory.
+ */
+@Path("/api/admin/export")
+@RolesAllowed("ADMIN")
+public class InterviewExportController {
+
+	@Inject
+	InterviewExportService interviewExportService;
+
+	/**
+	 * @param format {@code ndjson} (default) or {@code csv}
+	 * @param since  optional ISO-8601 instant; only interviews started at or
+	 *               after it are exported
+	 */
+	@GET
+	@Path("/interviews")
+	@Produces({UserImportController.NDJSON, "text/csv"})
+	public Response exportInterviews(@QueryParam("format") @DefaultValue("ndjson") String format,
+																	 @QueryParam("since") String since) {
+		InterviewExportService.Format exportFormat;
+		try {
+			exportFormat = InterviewExportService.Format.valueOf(format.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.BAD_REQUEST)
+										 .entity("Unsupported format: " + format)
+										 .type("text/plain")
+										 .build();
+		}
+
+		Instant sinceInstant;
+		try {
+			sinceInstant = since == null || since.isBlank() ? null : Instant.parse(since);
+		} catch (DateTimeParseException e) {
+			return Response.status(Response.Status.BAD_REQUEST)
+										 .entity("Invalid 'since' instant: " + since)
+										 .type("text/plain")
+										 .build();
+		}
+
+		boolean csv = exportFormat == InterviewExportService.Format.CSV;
+		StreamingOutput body = out -> interviewExportService.export(out, exportFormat, sinceInstant);
+		return Response.ok(body)
+									 .type(csv ? "text/csv; charset=UTF-8" : UserImportController.NDJSON)
+									 .header(HttpHeaders.CONTENT_DISPOSITION,
+													 "attachment; filename=\"interviews." + (csv ? "csv" : "ndjson") + "\"")
+									 .build();
+	}
+}
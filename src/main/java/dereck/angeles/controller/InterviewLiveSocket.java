@@ -0,0 +1,192 @@
+package dereck.angeles.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dereck.angeles.dto.AnswerSubmissionDto;
+import dereck.angeles.dto.LiveInterviewMessageDto;
+import dereck.angeles.service.LiveInterviewService;
+import io.smallrye.jwt.auth.principal.JWTParser;
+import io.smallrye.jwt.auth.principal.ParseException;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnMessage;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.PathParam;
+import jakarta.websocket.server.ServerEndpoint;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Live interview channel: {@code ws(s)://host/interview/{id}/live?token=<jwt>}.
+ * <p>
+ * Browsers cannot set an {@code Authorization} header on a WebSocket
+ * handshake, so the access token is passed as a query parameter. Frames are
+ * {@link LiveInterviewMessageDto} JSON objects. Work for a connection runs on
+ * virtual threads, one frame at a time in arrival order, so thousands of
+ * mostly idle sessions don't tie up platform threads. Questions and status
+ * changes are pushed to every connection of the interview; answer acks only
+ * to the sender.
+ */
+@ServerEndpoint("/interview/{id}/live")
+@ApplicationScoped
+public class InterviewLiveSocket {
+	private static final Logger logger = LoggerFactory.getLogger(InterviewLiveSocket.class);
+
+	private static final String LIVE_SESSION = "liveSession";
+	private static final String QUEUE = "queue";
+
+	@Inject
+	LiveInterviewService liveInterviewService;
+
+	@Inject
+	JWTParser jwtParser;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	private final Map<UUID, Set<Session>> connections = new ConcurrentHashMap<>();
+
+	@OnOpen
+	public void onOpen(Session session, @PathParam("id") String id) {
+		session.getUserProperties().put(QUEUE, CompletableFuture.completedFuture(null));
+		enqueue(session, () -> open(session, id));
+	}
+
+	@OnMessage
+	public void onMessage(Session session, String text) {
+		enqueue(session, () -> handle(session, text));
+	}
+
+	@OnClose
+	public void onClose(Session session) {
+		enqueue(session, () -> {
+			LiveInterviewService.LiveSession live = liveSession(session);
+			if (live == null) {
+				return;
+			}
+			connections.computeIfPresent(live.interviewId(), (k, peers) -> {
+				peers.remove(session);
+				return peers.isEmpty() ? null : peers;
+			});
+			liveInterviewService.leave(live);
+		});
+	}
+
+	@OnError
+	public void onError(Session session, Throwable error) {
+		logger.debug("Live interview connection {} failed: {}", session.getId(), error.getMessage());
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	private void open(Session session, String id) {
+		UUID interviewId;
+		UUID userId;
+		try {
+			interviewId = UUID.fromString(id);
+			JsonWebToken token = jwtParser.parse(firstParameter(session, "token"));
+			userId = UUID.fromString(token.getSubject());
+		} catch (ParseException | RuntimeException e) {
+			close(session, CloseReason.CloseCodes.VIOLATED_POLICY, "Unauthorized");
+			return;
+		}
+		try {
+			LiveInterviewService.LiveSession live = liveInterviewService.join(interviewId, userId);
+			session.getUserProperties().put(LIVE_SESSION, live);
+			connections.computeIfAbsent(interviewId, k -> ConcurrentHashMap.newKeySet()).add(session);
+			send(session, LiveInterviewMessageDto.status(live.status()));
+		} catch (IllegalArgumentException e) {
+			close(session, CloseReason.CloseCodes.VIOLATED_POLICY, e.getMessage());
+		}
+	}
+
+	private void handle(Session session, String text) {
+		LiveInterviewService.LiveSession live = liveSession(session);
+		if (live == null) {
+			return;
+		}
+		try {
+			LiveInterviewMessageDto message = objectMapper.readValue(text, LiveInterviewMessageDto.class);
+			switch (message.type() == null ? "" : message.type()) {
+				case "next" -> broadcast(live, LiveInterviewMessageDto.questions(
+							liveInterviewService.nextQuestions(live, message.count() == null ? 1 : message.count())));
+				case "answer" -> send(session, LiveInterviewMessageDto.ack(liveInterviewService.answer(live,
+							new AnswerSubmissionDto(message.interviewQuestionId(), message.answer(),
+																			message.sequence() == null ? 0 : message.sequence()))));
+				case "complete" -> broadcast(live, LiveInterviewMessageDto.status(liveInterviewService.complete(live)));
+				default -> send(session, LiveInterviewMessageDto.error("Unknown message type: " + message.type()));
+			}
+		} catch (IOException e) {
+			send(session, LiveInterviewMessageDto.error("Malformed message"));
+		} catch (RuntimeException e) {
+			send(session, LiveInterviewMessageDto.error(e.getMessage()));
+		}
+	}
+
+	/**
+	 * Runs tasks for one connection sequentially on virtual threads.
+	 */
+	private void enqueue(Session session, Runnable task) {
+		Map<String, Object> properties = session.getUserProperties();
+		synchronized (properties) {
+			CompletableFuture<?> tail = (CompletableFuture<?>) properties.get(QUEUE);
+			properties.put(QUEUE, tail.thenRunAsync(task, executor).exceptionally(e -> {
+				logger.warn("Live interview task failed on connection {}", session.getId(), e);
+				return null;
+			}));
+		}
+	}
+
+	private void broadcast(LiveInterviewService.LiveSession live, LiveInterviewMessageDto message) {
+		for (Session peer : connections.getOrDefault(live.interviewId(), Set.of())) {
+			send(peer, message);
+		}
+	}
+
+	private void send(Session session, LiveInterviewMessageDto message) {
+		if (!session.isOpen()) {
+			return;
+		}
+		try {
+			session.getAsyncRemote().sendText(objectMapper.writeValueAsString(message));
+		} catch (IOException e) {
+			logger.debug("Failed to send to live interview connection {}: {}", session.getId(), e.getMessage());
+		}
+	}
+
+	private static void close(Session session, CloseReason.CloseCodes code, String reason) {
+		try {
+			session.close(new CloseReason(code, reason));
+		} catch (IOException e) {
+			// Already closed
+		}
+	}
+
+	private static LiveInterviewService.LiveSession liveSession(Session session) {
+		return (LiveInterviewService.LiveSession) session.getUserProperties().get(LIVE_SESSION);
+	}
+
+	private static String firstParameter(Session session, String name) {
+		List<String> values = session.getRequestParameterMap().get(name);
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+}
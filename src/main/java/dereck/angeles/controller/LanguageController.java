@@ -1,33 +1,48 @@
 package dereck.angeles.controller;
 
-import dereck.angeles.dto.LanguageDto;
-import dereck.angeles.service.LanguageService;
+import dereck.angeles.service.ReferenceDataRegistry;
+import dereck.angeles.service.ReferenceDataSnapshot;
+import io.smallrye.common.annotation.NonBlocking;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
-import java.util.List;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * The LanguageController class handles HTTP requests related to Language entities.
  * <p>
- * It delegates business logic to the LanguageService and returns LanguageDto objects in the
- * API responses.
+ * Languages are served from the in-memory reference data snapshot with a strong ETag, so a
+ * client revalidating with {@code If-None-Match} gets a 304 without touching Hibernate.
  */
 @Path("/languages")
 public class LanguageController {
 
-	private final LanguageService languageService;
+	private final ReferenceDataRegistry referenceDataRegistry;
+	private final CacheControl cacheControl;
 
 	@Inject
-	public LanguageController(LanguageService languageService) {
-		this.languageService = languageService;
+	public LanguageController(ReferenceDataRegistry referenceDataRegistry,
+														@ConfigProperty(name = "app.reference-data.max-age", defaultValue = "300")
+														int maxAgeSeconds) {
+		this.referenceDataRegistry = referenceDataRegistry;
+		this.cacheControl = CachedResponses.cacheControl(maxAgeSeconds);
 	}
 
 	@GET
+	@NonBlocking
 	@Produces(MediaType.APPLICATION_JSON)
-	public List<LanguageDto> getLanguages() {
-		return languageService.getLanguages();
+	public Response getLanguages(@Context Request request,
+			@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+		ReferenceDataSnapshot snapshot = referenceDataRegistry.snapshot();
+		return CachedResponses.conditional(request, acceptEncoding, cacheControl,
+					snapshot.languagesBody());
 	}
-}
\ No newline at end of file
+}
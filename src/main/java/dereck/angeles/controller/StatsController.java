@@ -0,0 +1,117 @@
+package dereck.angeles.controller;
+
+import dereck.angeles.dto.ScoreAggregateDto;
+import dereck.angeles.service.ScoreAggregateService;
+import dereck.angeles.service.ScoreSketchService;
+import io.quarkus.security.Authenticated;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Score statistics read from the pre-aggregated {@code score_aggregates}
+ * table maintained by {@link ScoreAggregateService}, and score percentiles
+ * from {@link ScoreSketchService}.
+ */
+@Path("/api")
+public class StatsController {
+
+	@Inject
+	ScoreAggregateService scoreAggregateService;
+
+	@Inject
+	ScoreSketchService scoreSketchService;
+
+	@Inject
+	SecurityIdentity securityIdentity;
+
+	/**
+	 * Score statistics of the current user.
+	 */
+	@GET
+	@Path("/stats/me")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	public ScoreAggregateDto myStats() {
+		UUID userId = UUID.fromString(securityIdentity.getPrincipal().getName());
+		return scoreAggregateService.forUser(userId);
+	}
+
+	/**
+	 * Score statistics per topic/language/difficulty; each filter is optional.
+	 */
+	@GET
+	@Path("/stats/segments")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	public List<ScoreAggregateDto> segmentStats(@QueryParam("topicId") UUID topicId,
+																							@QueryParam("languageId") UUID languageId,
+																							@QueryParam("difficultyId") UUID difficultyId) {
+		return scoreAggregateService.segments(topicId, languageId, difficultyId);
+	}
+
+	/**
+	 * Percentile of {@code score} within a topic/language/difficulty, served
+	 * from in-memory histograms.
+	 *
+	 * @param metric {@code technical} (default) or {@code non_technical}
+	 */
+	@GET
+	@NonBlocking
+	@Path("/stats/percentile")
+	@Produces(MediaType.APPLICATION_JSON)
+	@Authenticated
+	public Response percentile(@QueryParam("topicId") UUID topicId,
+														 @QueryParam("languageId") UUID languageId,
+														 @QueryParam("difficultyId") UUID difficultyId,
+														 @QueryParam("score") Integer score,
+														 @QueryParam("metric") @DefaultValue("technical") String metric) {
+		if (score == null) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("{\"error\": \"Missing score\"}")
+					.build();
+		}
+		ScoreSketchService.Metric sketchMetric;
+		try {
+			sketchMetric = ScoreSketchService.Metric.valueOf(metric.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("{\"error\": \"Unsupported metric: " + metric + "\"}")
+					.build();
+		}
+		return Response.ok(scoreSketchService.percentile(topicId, languageId, difficultyId, sketchMetric, score))
+				.build();
+	}
+
+	/**
+	 * Recomputes all statistics and percentile histograms from the feedback
+	 * table.
+	 */
+	@POST
+	@Path("/admin/stats/rebuild")
+	@Produces(MediaType.APPLICATION_JSON)
+	@RolesAllowed("ADMIN")
+	public Response rebuild() {
+		try {
+			int rows = scoreAggregateService.rebuild();
+			int segments = scoreSketchService.rebuild();
+			return Response.ok("{\"rows\": " + rows + ", \"segments\": " + segments + "}").build();
+		} catch (Exception e) {
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+					.entity("{\"error\": \"" + e.getMessage() + "\"}")
+					.build();
+		}
+	}
+}
@@ -1,28 +1,41 @@
 package dereck.angeles.controller;
 
 import dereck.angeles.dto.TopicDto;
-import dereck.angeles.service.TopicService;
+import dereck.angeles.service.ReferenceDataRegistry;
+import dereck.angeles.service.ReferenceDataSnapshot;
+import io.smallrye.common.annotation.NonBlocking;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
-import java.util.List;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /**
  * The TopicController class handles HTTP requests related to Topic entities.
  * <p>
- * It delegates business logic to the TopicService and returns TopicDto objects in the
- * API responses.
+ * Topics are served from the in-memory reference data snapshot with a strong
+ * ETag, so a client revalidating with {@code If-None-Match} gets a 304
+ * without touching Hibernate.
  */
 @Path("/topics")
 public class TopicController {
 
-	private final TopicService topicService;
+	private final ReferenceDataRegistry referenceDataRegistry;
+	private final CacheControl cacheControl;
 
 	@Inject
-	public TopicController(TopicService topicService) {
-		this.topicService = topicService;
+	public TopicController(ReferenceDataRegistry referenceDataRegistry,
+												 @ConfigProperty(name = "app.reference-data.max-age", defaultValue = "300")
+												 int maxAgeSeconds) {
+		this.referenceDataRegistry = referenceDataRegistry;
+		this.cacheControl = CachedResponses.cacheControl(maxAgeSeconds);
 	}
 
 	/**
@@ -30,11 +43,16 @@ public class TopicController {
 	 * <p>
 	 * This endpoint returns a list of all available topics as DTOs.
 	 *
-	 * @return a list of {@link TopicDto} objects representing all topics
+	 * @return the pre-serialized JSON array of {@link TopicDto} (gzip when
+	 * accepted), or 304 if the client's copy is current
 	 */
 	@GET
+	@NonBlocking
 	@Produces(MediaType.APPLICATION_JSON)
-	public List<TopicDto> getTopics() {
-		return topicService.getTopics();
+	public Response getTopics(@Context Request request,
+			@HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+		ReferenceDataSnapshot snapshot = referenceDataRegistry.snapshot();
+		return CachedResponses.conditional(request, acceptEncoding, cacheControl,
+					snapshot.topicsBody());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package dereck.angeles.controller;
+
+import dereck.angeles.dto.UserImportResultDto;
+import dereck.angeles.service.UserImportService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.InputStream;
+
+/**
+ * Admin endpoint for onboarding users in bulk.
+ * <p>
+ * Accepts {@code application/x-ndjson} (one JSON object per line) or
+ * {@code text/csv} (header row required) with {@code name}, {@code email} and
+ * {@code password} fields, and returns per-row errors in the response. A
+ * body is capped at {@code quarkus.http.limits.max-body-size} like any other
+ * request, so larger files are sent as several imports; rows resent after a
+ * partial failure are reported as already registered.
+ */
+@Path("/api/admin/users")
+@RolesAllowed("ADMIN")
+@RunOnVirtualThread
+public class UserImportController {
+
+	static final String NDJSON = "application/x-ndjson";
+
+	@Inject
+	UserImportService userImportService;
+
+	@POST
+	@Path("/import")
+	@Consumes({NDJSON, "text/csv"})
+	@Produces(MediaType.APPLICATION_JSON)
+	public Response importUsers(@HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+															InputStream body) {
+		UserImportService.Format format = contentType != null
+					&& contentType.toLowerCase().startsWith("text/csv")
+					? UserImportService.Format.CSV
+					: UserImportService.Format.NDJSON;
+		try {
+			UserImportResultDto result = userImportService.importUsers(body, format);
+			return Response.ok(result).build();
+		} catch (Exception e) {
+			return Response.status(Response.Status.BAD_REQUEST)
+										 .entity(new ErrorResponse(e.getMessage()))
+										 .build();
+		}
+	}
+
+	@Setter
+	@Getter
+	static class ErrorResponse {
+		private String message;
+
+		public ErrorResponse(String message) {
+			this.message = message;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package dereck.angeles.dto;
+
+import java.io.Serializable;
+
+/**
+ * Response to an answer submission. {@code rejected} counts answers without
+ * an {@code interviewQuestionId} or for a question that was not asked in this
+ * interview; they are dropped. {@code durable} is {@code true} once the
+ * accepted answers have been written to the database.
+ */
+public record AnswerAckDto(
+		int accepted,
+		int rejected,
+		int pending,
+		boolean durable) implements Serializable {
+}
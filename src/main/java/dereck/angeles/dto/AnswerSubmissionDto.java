@@ -0,0 +1,17 @@
+package dereck.angeles.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * A (possibly partial) answer to one interview question. Answers for the same
+ * question with a lower {@code sequence} than one already received are
+ * ignored, so clients can resend the full text as the user types.
+ */
+public record AnswerSubmissionDto(
+		@NotNull UUID interviewQuestionId,
+		String answer,
+		long sequence) implements Serializable {
+}
@@ -0,0 +1,16 @@
+package dereck.angeles.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Everything the interview setup form needs in one payload. {@code version}
+ * changes whenever any of the lists change.
+ */
+public record BootstrapDto(
+			String version,
+			List<TopicDto> topics,
+			List<LanguageDto> languages,
+			List<DifficultyDto> difficulties)
+			implements Serializable {
+}
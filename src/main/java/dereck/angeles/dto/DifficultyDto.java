@@ -0,0 +1,16 @@
+package dereck.angeles.dto;
+
+import dereck.angeles.model.Difficulty;
+import jakarta.validation.constraints.NotNull;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * DTO for {@link dereck.angeles.model.Difficulty}
+ */
+public record DifficultyDto(
+			UUID id, @NotNull Difficulty.DifficultyLevel level, String description,
+			Integer yearsOfExperience)
+			implements Serializable {
+}
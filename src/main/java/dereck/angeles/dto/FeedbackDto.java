@@ -0,0 +1,20 @@
+package dereck.angeles.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * DTO for {@link dereck.angeles.model.Feedback}
+ */
+public record FeedbackDto(
+		UUID id,
+		UUID interviewId,
+		Integer technicalScore,
+		Integer nonTechnicalScore,
+		String generalComments,
+		Map<String, Object> improvementTips,
+		Boolean wouldHire,
+		Instant createdAt) implements Serializable {
+}
@@ -0,0 +1,17 @@
+package dereck.angeles.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.Serializable;
+
+/**
+ * Progress of an interview's feedback job. {@code feedback} is set once the
+ * status is {@code DONE}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FeedbackStatusDto(
+		String status,
+		int attempts,
+		String lastError,
+		FeedbackDto feedback) implements Serializable {
+}
@@ -0,0 +1,33 @@
+package dereck.angeles.dto;
+
+import dereck.angeles.model.Difficulty;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat projection of an {@link dereck.angeles.model.Interview} for history
+ * listings. Built directly by a joined JPQL constructor expression, so no
+ * entity or lazy association is loaded.
+ */
+public record InterviewHistoryItemDto(
+		UUID id,
+		String topicName,
+		String languageName,
+		Difficulty.DifficultyLevel difficultyLevel,
+		String status,
+		Instant startTime,
+		Instant endTime,
+		Long durationSeconds) implements Serializable {
+
+	public InterviewHistoryItemDto(UUID id, String topicName, String languageName,
+			Difficulty.DifficultyLevel difficultyLevel, String status,
+			Instant startTime, Instant endTime) {
+		this(id, topicName, languageName, difficultyLevel, status, startTime, endTime,
+				startTime != null && endTime != null
+						? Duration.between(startTime, endTime).toSeconds()
+						: null);
+	}
+}
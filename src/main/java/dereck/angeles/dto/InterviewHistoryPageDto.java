@@ -0,0 +1,13 @@
+package dereck.angeles.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * One page of interview history. {@code nextCursor} is {@code null} on the
+ * last page.
+ */
+public record InterviewHistoryPageDto(
+		List<InterviewHistoryItemDto> items,
+		String nextCursor) implements Serializable {
+}
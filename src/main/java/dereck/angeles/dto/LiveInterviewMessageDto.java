@@ -0,0 +1,44 @@
+package dereck.angeles.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Frame exchanged on the live interview WebSocket.
+ * <p>
+ * Client to server: {@code next} (with {@code count}), {@code answer}
+ * (with {@code interviewQuestionId}, {@code answer}, {@code sequence}) and
+ * {@code complete}. Server to client: {@code questions}, {@code ack},
+ * {@code status} and {@code error}. Unused fields are omitted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LiveInterviewMessageDto(
+		String type,
+		Integer count,
+		UUID interviewQuestionId,
+		String answer,
+		Long sequence,
+		List<QuestionDto> questions,
+		AnswerAckDto ack,
+		String status,
+		String error) implements Serializable {
+
+	public static LiveInterviewMessageDto questions(List<QuestionDto> questions) {
+		return new LiveInterviewMessageDto("questions", null, null, null, null, questions, null, null, null);
+	}
+
+	public static LiveInterviewMessageDto ack(AnswerAckDto ack) {
+		return new LiveInterviewMessageDto("ack", null, null, null, null, null, ack, null, null);
+	}
+
+	public static LiveInterviewMessageDto status(String status) {
+		return new LiveInterviewMessageDto("status", null, null, null, null, null, null, status, null);
+	}
+
+	public static LiveInterviewMessageDto error(String error) {
+		return new LiveInterviewMessageDto("error", null, null, null, null, null, null, null, error);
+	}
+}
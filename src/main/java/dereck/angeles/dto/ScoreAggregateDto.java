@@ -0,0 +1,32 @@
+package dereck.angeles.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Score statistics for one user ({@code dimension = USER}) or one
+ * topic/language/difficulty combination ({@code dimension = SEGMENT}).
+ * Averages and rates are {@code null} when there is nothing to average.
+ */
+public record ScoreAggregateDto(
+		String dimension,
+		UUID userId,
+		UUID topicId,
+		UUID languageId,
+		UUID difficultyId,
+		long feedbackCount,
+		Double technicalAverage,
+		Integer technicalMin,
+		Integer technicalMax,
+		Double nonTechnicalAverage,
+		Integer nonTechnicalMin,
+		Integer nonTechnicalMax,
+		Double wouldHireRate,
+		Instant updatedAt) implements Serializable {
+
+	public static ScoreAggregateDto empty(String dimension, UUID userId) {
+		return new ScoreAggregateDto(dimension, userId, null, null, null, 0,
+				null, null, null, null, null, null, null, null);
+	}
+}
@@ -0,0 +1,21 @@
+package dereck.angeles.dto;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Where {@code score} falls among the recorded scores of one
+ * topic/language/difficulty: {@code percentile} is the share, in percent,
+ * of scores strictly below it. {@code percentile} and {@code median} are
+ * {@code null} when the segment has no scores yet.
+ */
+public record ScorePercentileDto(
+		UUID topicId,
+		UUID languageId,
+		UUID difficultyId,
+		String metric,
+		int score,
+		Double percentile,
+		Integer median,
+		long sampleSize) implements Serializable {
+}
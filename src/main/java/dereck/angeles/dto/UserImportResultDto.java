@@ -0,0 +1,17 @@
+package dereck.angeles.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk user import. {@code errors} is capped; {@code failed}
+ * always holds the full count.
+ */
+public record UserImportResultDto(
+			long totalRows,
+			long imported,
+			long failed,
+			long durationMillis,
+			List<RowError> errors
+) {
+	public record RowError(long line, String email, String message) {}
+}
@@ -24,7 +24,7 @@ public class Difficulty {
 
 	@Size(max = 50)
 	@NotNull
-	@Column(name = "level", nullable = false, length = 50)
+	@Column(name = "level", nullable = false, unique = true, length = 50)
 	@Enumerated(EnumType.STRING)
 	private DifficultyLevel level;
 
@@ -40,7 +40,23 @@ public class Difficulty {
 		@JsonProperty("MidLevel")
 		MidLevel,
 		@JsonProperty("Senior")
-		Senior
+		Senior;
+
+		/**
+		 * Resolves the label sent by the frontend ("Junior", "MidLevel",
+		 * "Senior"). Returns {@code null} for unknown labels.
+		 */
+		public static DifficultyLevel fromLabel(String label) {
+			if (label == null) {
+				return null;
+			}
+			for (DifficultyLevel level : values()) {
+				if (level.name().equals(label)) {
+					return level;
+				}
+			}
+			return null;
+		}
 	}
 
 }
\ No newline at end of file
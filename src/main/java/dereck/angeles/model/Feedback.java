@@ -57,4 +57,11 @@ public class Feedback {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity(name = "IdempotencyKey")
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idempotency_keys_expires_idx", columnList = "expires_at")
+})
+public class IdempotencyKey {
+    // scope:userId:key
+    @Id
+    @Size(max = 400)
+    @Column(name = "id", nullable = false, length = 400)
+    private String id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // SHA-256 of the request payload, hex; null for rows stored before it was recorded
+    @Size(max = 64)
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    // Null while the first request is still running
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "response_body", length = Integer.MAX_VALUE)
+    private String responseBody;
+
+    @NotNull
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
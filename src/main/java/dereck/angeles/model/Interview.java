@@ -5,16 +5,21 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Getter
 @Setter
 @Entity(name = "Interview")
-@Table(name = "interviews")
+@Table(name = "interviews", indexes = {
+        @Index(name = "interviews_user_start_idx", columnList = "user_id, start_time DESC, id DESC")
+})
 public class Interview {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -44,6 +49,11 @@ public class Interview {
     @Column(name = "job_description", columnDefinition = "TEXT")
     private String jobDescription;
 
+    // Skills found in jobDescription by SkillExtractionService when the interview was created
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "skills", columnDefinition = "text[]")
+    private List<String> skills;
+
     @Column(name = "experience_years")
     private Integer experienceYears;
 
@@ -62,11 +72,17 @@ public class Interview {
     @Column(name = "audio_url")
     private String audioUrl;
 
+    // One of Status.value(); change only through InterviewService.transition
     @Size(max = 50)
     @ColumnDefault("'in_progress'")
     @Column(name = "status", length = 50)
     private String status;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
 /*
  TODO [Reverse Engineering] create field to map the 'duration' column
  Available actions: Define target Java type | Uncomment as is | Remove column mapping
@@ -74,4 +90,36 @@ public class Interview {
     @Column(name = "duration", columnDefinition = "interval")
     private Object duration;
 */
-}
\ No newline at end of file
+
+    /**
+     * Lifecycle of an interview. The allowed transitions are listed per
+     * state; a completed interview is final.
+     */
+    public enum Status {
+        IN_PROGRESS("in_progress"),
+        COMPLETED("completed");
+
+        private final String value;
+
+        Status(String value) {
+            this.value = value;
+        }
+
+        public String value() {
+            return value;
+        }
+
+        public boolean canTransitionTo(Status target) {
+            return this == IN_PROGRESS && target == COMPLETED;
+        }
+
+        public static Status fromValue(String value) {
+            for (Status status : values()) {
+                if (status.value.equals(value)) {
+                    return status;
+                }
+            }
+            throw new IllegalArgumentException("Unknown interview status: " + value);
+        }
+    }
+}
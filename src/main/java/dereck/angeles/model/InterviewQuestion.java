@@ -37,4 +37,12 @@ public class InterviewQuestion {
     @Column(name = "asked_at")
     private Instant askedAt;
 
+    // Ids are generated in the application so inserts can be JDBC-batched
+    @PrePersist
+    void assignId() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+    }
+
 }
\ No newline at end of file
@@ -25,7 +25,7 @@ public class Language {
 
     @Size(max = 100)
     @NotNull
-    @Column(name = "name", nullable = false, length = 100)
+    @Column(name = "name", nullable = false, unique = true, length = 100)
     private String name;
 
     @ColumnDefault("CURRENT_TIMESTAMP")
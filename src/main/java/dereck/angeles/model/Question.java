@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -15,17 +16,34 @@ import java.util.UUID;
 @Setter
 @Entity(name = "Question")
 @Table(name = "questions")
+@EntityListeners(QuestionListener.class)
 public class Question {
     @Id
     @ColumnDefault("uuid_generate_v4()")
     @Column(name = "id", nullable = false)
     private UUID id;
 
+    // Dense identity used by QuestionBankIndex; assigned by the database
+    @Generated
+    @Column(name = "ordinal", insertable = false, updatable = false, unique = true,
+            columnDefinition = "integer generated by default as identity")
+    private Integer ordinal;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "topic_id")
+    private Topic topic;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "language_id")
     private Language language;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "difficulty_id")
+    private Difficulty difficulty;
+
     @NotNull
     @Column(name = "question_text", nullable = false, length = Integer.MAX_VALUE)
     private String questionText;
@@ -0,0 +1,31 @@
+package dereck.angeles.model;
+
+import java.util.UUID;
+
+/**
+ * CDI event fired by {@link QuestionListener} when a {@link Question} is
+ * written or removed. It carries a copy of the indexed fields, so observers
+ * never touch the entity. Observe it with
+ * {@code during = TransactionPhase.AFTER_SUCCESS} to see only committed
+ * changes.
+ */
+public record QuestionChanged(UUID id, Integer ordinal, UUID topicId, UUID languageId,
+                              Difficulty.DifficultyLevel level, String questionText,
+                              boolean removed) {
+
+    static QuestionChanged written(Question question) {
+        return new QuestionChanged(
+                question.getId(),
+                question.getOrdinal(),
+                question.getTopic() == null ? null : question.getTopic().getId(),
+                question.getLanguage() == null ? null : question.getLanguage().getId(),
+                question.getDifficulty() == null ? null : question.getDifficulty().getLevel(),
+                question.getQuestionText(),
+                false);
+    }
+
+    static QuestionChanged removed(Question question) {
+        return new QuestionChanged(question.getId(), question.getOrdinal(),
+                null, null, null, null, true);
+    }
+}
@@ -0,0 +1,33 @@
+package dereck.angeles.model;
+
+import io.quarkus.arc.Arc;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on {@link Question} that reports every write as a
+ * {@link QuestionChanged} event. The event is fired inside the writing
+ * transaction; in-memory indexes observe it after commit, so a rollback
+ * never leaves a phantom question behind.
+ */
+public class QuestionListener {
+
+    @PostPersist
+    @PostUpdate
+    void onWrite(Question question) {
+        if (question.getOrdinal() == null) {
+            return;
+        }
+        fire(QuestionChanged.written(question));
+    }
+
+    @PostRemove
+    void onRemove(Question question) {
+        fire(QuestionChanged.removed(question));
+    }
+
+    private static void fire(QuestionChanged event) {
+        Arc.container().beanManager().getEvent().select(QuestionChanged.class).fire(event);
+    }
+}
@@ -0,0 +1,65 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity(name = "ScoreAggregate")
+@Table(name = "score_aggregates")
+public class ScoreAggregate {
+    public static final String USER = "USER";
+    public static final String SEGMENT = "SEGMENT";
+
+    @EmbeddedId
+    private ScoreAggregateId id;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "topic_id")
+    private UUID topicId;
+
+    @Column(name = "language_id")
+    private UUID languageId;
+
+    @Column(name = "difficulty_id")
+    private UUID difficultyId;
+
+    @Column(name = "feedback_count", nullable = false)
+    private long feedbackCount;
+
+    @Column(name = "technical_count", nullable = false)
+    private long technicalCount;
+
+    @Column(name = "technical_sum", nullable = false)
+    private long technicalSum;
+
+    @Column(name = "technical_min")
+    private Integer technicalMin;
+
+    @Column(name = "technical_max")
+    private Integer technicalMax;
+
+    @Column(name = "non_technical_count", nullable = false)
+    private long nonTechnicalCount;
+
+    @Column(name = "non_technical_sum", nullable = false)
+    private long nonTechnicalSum;
+
+    @Column(name = "non_technical_min")
+    private Integer nonTechnicalMin;
+
+    @Column(name = "non_technical_max")
+    private Integer nonTechnicalMax;
+
+    @Column(name = "would_hire_count", nullable = false)
+    private long wouldHireCount;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
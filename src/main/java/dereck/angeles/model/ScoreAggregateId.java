@@ -0,0 +1,44 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Getter
+@Setter
+@Embeddable
+public class ScoreAggregateId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    @Size(max = 20)
+    @Column(name = "dimension", nullable = false, length = 20)
+    private String dimension;
+
+    @NotNull
+    @Size(max = 120)
+    @Column(name = "dimension_key", nullable = false, length = 120)
+    private String dimensionKey;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ScoreAggregateId entity = (ScoreAggregateId) o;
+        return Objects.equals(this.dimension, entity.dimension) &&
+                Objects.equals(this.dimensionKey, entity.dimensionKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dimension, dimensionKey);
+    }
+
+}
@@ -0,0 +1,41 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity(name = "ScoreSketch")
+@Table(name = "score_sketches")
+public class ScoreSketch {
+    @Id
+    @Column(name = "segment_key", nullable = false, length = 120)
+    private String segmentKey;
+
+    @Column(name = "topic_id")
+    private UUID topicId;
+
+    @Column(name = "language_id")
+    private UUID languageId;
+
+    @Column(name = "difficulty_id")
+    private UUID difficultyId;
+
+    // ScoreHistogram of technical scores
+    @NotNull
+    @Column(name = "technical", nullable = false, columnDefinition = "bytea")
+    private byte[] technical;
+
+    // ScoreHistogram of non-technical scores
+    @NotNull
+    @Column(name = "non_technical", nullable = false, columnDefinition = "bytea")
+    private byte[] nonTechnical;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
@@ -0,0 +1,22 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Single row holding the generation of {@code score_sketches}; every rebuild
+ * increments it (see {@code ScoreSketchService}).
+ */
+@Getter
+@Setter
+@Entity(name = "ScoreSketchEpoch")
+@Table(name = "score_sketch_epoch")
+public class ScoreSketchEpoch {
+    @Id
+    @Column(name = "id", nullable = false)
+    private Short id;
+
+    @Column(name = "epoch", nullable = false)
+    private long epoch;
+}
@@ -0,0 +1,28 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Entity(name = "SeedState")
+@Table(name = "seed_state")
+public class SeedState {
+    @Id
+    @Size(max = 100)
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @NotNull
+    @Size(max = 64)
+    @Column(name = "checksum", nullable = false, length = 64)
+    private String checksum;
+
+    @Column(name = "applied_at")
+    private Instant appliedAt;
+}
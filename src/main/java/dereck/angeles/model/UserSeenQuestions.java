@@ -0,0 +1,35 @@
+package dereck.angeles.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity(name = "UserSeenQuestions")
+@Table(name = "user_seen_questions")
+public class UserSeenQuestions {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    // CompressedBitmap over question ordinals
+    @NotNull
+    @Column(name = "bitmap", nullable = false, columnDefinition = "bytea")
+    private byte[] bitmap;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
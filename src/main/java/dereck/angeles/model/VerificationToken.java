@@ -13,7 +13,7 @@ import java.time.OffsetDateTime;
 @Getter
 @Setter
 @Entity(name = "VerificationToken")
-@Table(name = "verification_token")
+@Table(name = "verification_tokens")
 public class VerificationToken {
     @EmbeddedId
     private VerificationTokenId id;
@@ -4,32 +4,16 @@ import dereck.angeles.model.Difficulty;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
-import java.util.List;
 import java.util.UUID;
 
 @ApplicationScoped
 public class DifficultyRepository implements PanacheRepositoryBase<Difficulty, UUID> {
 
     public Difficulty findByLevel(String level) {
-        // Convert frontend level string to enum for database lookup
-        Difficulty.DifficultyLevel enumLevel;
-        
-        switch (level) {
-            case "Junior":
-                enumLevel = Difficulty.DifficultyLevel.Junior;
-                break;
-            case "MidLevel":  // Frontend now sends "MidLevel"
-                enumLevel = Difficulty.DifficultyLevel.MidLevel;  // Database stores "MidLevel"
-                break;
-            case "Senior":
-                enumLevel = Difficulty.DifficultyLevel.Senior;
-                break;
-            default:
-                return null;
+        Difficulty.DifficultyLevel enumLevel = Difficulty.DifficultyLevel.fromLabel(level);
+        if (enumLevel == null) {
+            return null;
         }
-        
-        // Query by enum value - this should work correctly now
-        List<Difficulty> difficulties = find("level", enumLevel).list();
-        return difficulties.isEmpty() ? null : difficulties.get(0);
+        return find("level", enumLevel).firstResult();
     }
 }
\ No newline at end of file
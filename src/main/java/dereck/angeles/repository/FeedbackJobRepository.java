@@ -0,0 +1,126 @@
+package dereck.angeles.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Native SQL for the {@code feedback_jobs} queue. Claiming uses
+ * {@code FOR UPDATE SKIP LOCKED} so concurrent workers, on one node or many,
+ * never pick the same job.
+ */
+@ApplicationScoped
+public class FeedbackJobRepository {
+
+    /**
+     * Job status as seen by the interview owner.
+     */
+    public record JobStatus(UUID userId, String status, int attempts, String lastError) {
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Queues a job for the interview unless one already exists.
+     */
+    public void enqueue(UUID interviewId) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO feedback_jobs (interview_id, status, attempts, next_attempt_at, created_at, updated_at)
+                        VALUES (:interviewId, 'QUEUED', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+                        ON CONFLICT (interview_id) DO NOTHING""")
+                .setParameter("interviewId", interviewId)
+                .executeUpdate();
+    }
+
+    /**
+     * Marks up to {@code limit} due jobs as running and returns their
+     * interview ids with the attempt number now in progress.
+     */
+    public Map<UUID, Integer> claimDue(int limit) {
+        List<?> rows = entityManager.createNativeQuery("""
+                        UPDATE feedback_jobs SET status = 'RUNNING', attempts = attempts + 1, updated_at = CURRENT_TIMESTAMP
+                        WHERE interview_id IN (
+                            SELECT interview_id FROM feedback_jobs
+                            WHERE status = 'QUEUED' AND next_attempt_at <= CURRENT_TIMESTAMP
+                            ORDER BY next_attempt_at
+                            LIMIT :limit
+                            FOR UPDATE SKIP LOCKED)
+                        RETURNING interview_id, attempts""")
+                .setParameter("limit", limit)
+                .getResultList();
+        Map<UUID, Integer> claimed = new HashMap<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            claimed.put((UUID) columns[0], ((Number) columns[1]).intValue());
+        }
+        return claimed;
+    }
+
+    /**
+     * Puts jobs left running by a node that died back in the queue.
+     */
+    public int requeueStale(Instant runningSince) {
+        return entityManager.createNativeQuery("""
+                        UPDATE feedback_jobs SET status = 'QUEUED', updated_at = CURRENT_TIMESTAMP
+                        WHERE status = 'RUNNING' AND updated_at < :cutoff""")
+                .setParameter("cutoff", runningSince)
+                .executeUpdate();
+    }
+
+    public void markDone(Collection<UUID> interviewIds) {
+        if (interviewIds.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery("""
+                        UPDATE feedback_jobs SET status = 'DONE', last_error = NULL, updated_at = CURRENT_TIMESTAMP
+                        WHERE interview_id IN (:ids)""")
+                .setParameter("ids", interviewIds)
+                .executeUpdate();
+    }
+
+    public void markRetry(UUID interviewId, Instant nextAttemptAt, String error) {
+        entityManager.createNativeQuery("""
+                        UPDATE feedback_jobs SET status = 'QUEUED', next_attempt_at = :next, last_error = :error,
+                        updated_at = CURRENT_TIMESTAMP
+                        WHERE interview_id = :interviewId""")
+                .setParameter("interviewId", interviewId)
+                .setParameter("next", nextAttemptAt)
+                .setParameter("error", error)
+                .executeUpdate();
+    }
+
+    public void markFailed(UUID interviewId, String error) {
+        entityManager.createNativeQuery("""
+                        UPDATE feedback_jobs SET status = 'FAILED', last_error = :error, updated_at = CURRENT_TIMESTAMP
+                        WHERE interview_id = :interviewId""")
+                .setParameter("interviewId", interviewId)
+                .setParameter("error", error)
+                .executeUpdate();
+    }
+
+    public Map<UUID, JobStatus> findStatuses(Collection<UUID> interviewIds) {
+        if (interviewIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object[]> rows = entityManager.createQuery("""
+                        SELECT j.interviewId, i.user.id, j.status, j.attempts, j.lastError
+                        FROM FeedbackJob j JOIN j.interview i
+                        WHERE j.interviewId IN :ids""", Object[].class)
+                .setParameter("ids", interviewIds)
+                .getResultList();
+        Map<UUID, JobStatus> statuses = new HashMap<>();
+        for (Object[] row : rows) {
+            statuses.put((UUID) row[0], new JobStatus((UUID) row[1], row[2].toString(),
+                    (Integer) row[3], (String) row[4]));
+        }
+        return statuses;
+    }
+}
@@ -0,0 +1,84 @@
+package dereck.angeles.repository;
+
+import dereck.angeles.model.Feedback;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.UUID;
+
+@ApplicationScoped
+public class FeedbackRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    public Feedback findByInterviewId(UUID interviewId) {
+        List<Feedback> rows = entityManager
+                .createQuery("SELECT f FROM Feedback f WHERE f.interview.id = :id", Feedback.class)
+                .setParameter("id", interviewId)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Returns {@code [topic, language, difficultyLevel, experienceYears]} for
+     * the interview, or {@code null} if it does not exist.
+     */
+    public Object[] findScoringContext(UUID interviewId) {
+        List<Object[]> rows = entityManager.createQuery("""
+                        SELECT t.name, l.name, d.level, i.experienceYears
+                        FROM Interview i
+                        LEFT JOIN i.topic t
+                        LEFT JOIN i.language l
+                        LEFT JOIN i.difficulty d
+                        WHERE i.id = :id""", Object[].class)
+                .setParameter("id", interviewId)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Returns {@code [questionText, sampleAnswer, userAnswer]} per asked
+     * question, in the order they were asked.
+     */
+    public List<Object[]> findAnsweredQuestions(UUID interviewId) {
+        return entityManager.createQuery("""
+                        SELECT q.questionText, q.sampleAnswer, iq.userAnswer
+                        FROM InterviewQuestion iq JOIN iq.question q
+                        WHERE iq.interview.id = :id
+                        ORDER BY iq.askedAt, iq.id""", Object[].class)
+                .setParameter("id", interviewId)
+                .getResultList();
+    }
+
+    /**
+     * The subset of {@code interviewIds} that already have feedback.
+     */
+    public List<UUID> findInterviewIdsWithFeedback(List<UUID> interviewIds) {
+        if (interviewIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT f.interview.id FROM Feedback f WHERE f.interview.id IN :ids", UUID.class)
+                .setParameter("ids", interviewIds)
+                .getResultList();
+    }
+
+    /**
+     * Removes an existing feedback row so a re-run can replace it.
+     */
+    public void deleteByInterviewIds(List<UUID> interviewIds) {
+        if (interviewIds.isEmpty()) {
+            return;
+        }
+        entityManager.createQuery("DELETE FROM Feedback f WHERE f.interview.id IN :ids")
+                .setParameter("ids", interviewIds)
+                .executeUpdate();
+    }
+
+    public void persist(Feedback feedback) {
+        entityManager.persist(feedback);
+    }
+}
@@ -0,0 +1,95 @@
+package dereck.angeles.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native SQL for {@code idempotency_keys}. A request claims its key by
+ * inserting a row without a response; the row is completed with the
+ * response, or released if the request fails.
+ */
+@ApplicationScoped
+public class IdempotencyKeyRepository {
+
+    /**
+     * A live row; {@code statusCode} is {@code null} while the claiming
+     * request is still running, {@code requestHash} is {@code null} for rows
+     * written before request hashes were stored.
+     */
+    public record Stored(String requestHash, Integer statusCode, String responseBody, Instant expiresAt) {
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Returns the row unless it is missing or expired.
+     */
+    public Stored find(String id, Instant now) {
+        List<Stored> rows = entityManager.createQuery("""
+                        SELECT k.requestHash, k.statusCode, k.responseBody, k.expiresAt FROM IdempotencyKey k
+                        WHERE k.id = :id AND k.expiresAt > :now""", Object[].class)
+                .setParameter("id", id)
+                .setParameter("now", now)
+                .getResultList()
+                .stream()
+                .map(row -> new Stored((String) row[0], (Integer) row[1], (String) row[2], (Instant) row[3]))
+                .toList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Claims the key until {@code leaseUntil}, taking over an expired row.
+     *
+     * @return {@code false} if another request holds or completed the key
+     */
+    public boolean claim(String id, UUID userId, String requestHash, Instant now, Instant leaseUntil) {
+        return entityManager.createNativeQuery("""
+                        INSERT INTO idempotency_keys
+                            (id, user_id, request_hash, status_code, response_body, created_at, expires_at)
+                        VALUES (:id, :userId, :requestHash, NULL, NULL, :now, :leaseUntil)
+                        ON CONFLICT (id) DO UPDATE
+                        SET user_id = EXCLUDED.user_id, request_hash = EXCLUDED.request_hash,
+                            status_code = NULL, response_body = NULL,
+                            created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at
+                        WHERE idempotency_keys.expires_at <= :now""")
+                .setParameter("id", id)
+                .setParameter("userId", userId)
+                .setParameter("requestHash", requestHash)
+                .setParameter("now", now)
+                .setParameter("leaseUntil", leaseUntil)
+                .executeUpdate() == 1;
+    }
+
+    public void complete(String id, int statusCode, String responseBody, Instant expiresAt) {
+        entityManager.createNativeQuery("""
+                        UPDATE idempotency_keys
+                        SET status_code = :statusCode, response_body = :body, expires_at = :expiresAt
+                        WHERE id = :id""")
+                .setParameter("statusCode", statusCode)
+                .setParameter("body", responseBody)
+                .setParameter("expiresAt", expiresAt)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    /**
+     * Drops an unfinished claim so the client can retry with the same key.
+     */
+    public void release(String id) {
+        entityManager.createNativeQuery("DELETE FROM idempotency_keys WHERE id = :id AND status_code IS NULL")
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    public int deleteExpired(Instant now) {
+        return entityManager.createNativeQuery("DELETE FROM idempotency_keys WHERE expires_at <= :now")
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+}
@@ -1,11 +1,16 @@
 package dereck.angeles.repository;
 
+import dereck.angeles.dto.InterviewHistoryItemDto;
 import dereck.angeles.model.Interview;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @ApplicationScoped
@@ -22,6 +27,111 @@ public class InterviewRepository {
         entityManager.persist(interview);
     }
 
+    /**
+     * Returns {@code [userId, topicId, languageId, difficultyLevel]} for the
+     * interview, or {@code null} if it does not exist.
+     */
+    public Object[] findOwnerAndBucket(UUID interviewId) {
+        List<Object[]> rows = entityManager
+                .createQuery("SELECT i.user.id, i.topic.id, i.language.id, d.level"
+                        + " FROM Interview i LEFT JOIN i.difficulty d"
+                        + " WHERE i.id = :id", Object[].class)
+                .setParameter("id", interviewId)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Ids of the interview's {@code interview_questions} rows.
+     */
+    public List<UUID> findQuestionIds(UUID interviewId) {
+        return entityManager
+                .createQuery("SELECT iq.id FROM InterviewQuestion iq WHERE iq.interview.id = :id", UUID.class)
+                .setParameter("id", interviewId)
+                .getResultList();
+    }
+
+    public String findJobDescription(UUID interviewId) {
+        List<String> rows = entityManager
+                .createQuery("SELECT i.jobDescription FROM Interview i WHERE i.id = :id", String.class)
+                .setParameter("id", interviewId)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Returns {@code [userId, status, version]} for the interview, or
+     * {@code null} if it does not exist. Read without locking; pair with
+     * {@link #updateStatus}.
+     */
+    public Object[] findState(UUID interviewId) {
+        List<Object[]> rows = entityManager
+                .createQuery("SELECT i.user.id, i.status, i.version FROM Interview i WHERE i.id = :id", Object[].class)
+                .setParameter("id", interviewId)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Moves the interview to {@code status} if it is still at
+     * {@code expectedVersion}, bumping the version. {@code endTime} is set
+     * unless it already has a value.
+     *
+     * @return {@code false} if another transaction changed the interview first
+     */
+    public boolean updateStatus(UUID interviewId, long expectedVersion, String status, Instant endTime) {
+        return entityManager.createQuery("""
+                        UPDATE Interview i
+                        SET i.status = :status, i.endTime = COALESCE(i.endTime, :endTime), i.version = i.version + 1
+                        WHERE i.id = :id AND i.version = :version""")
+                .setParameter("status", status)
+                .setParameter("endTime", endTime)
+                .setParameter("id", interviewId)
+                .setParameter("version", expectedVersion)
+                .executeUpdate() == 1;
+    }
+
+    /**
+     * Sets the recording URL without reading the row first; the version is
+     * bumped so entity updates based on an older copy fail.
+     */
+    public void updateVideoUrl(UUID interviewId, String videoUrl) {
+        entityManager.createQuery("UPDATE Interview i SET i.videoUrl = :url, i.version = i.version + 1 WHERE i.id = :id")
+                .setParameter("url", videoUrl)
+                .setParameter("id", interviewId)
+                .executeUpdate();
+    }
+
+    /**
+     * Writes many answers with one multi-row {@code UPDATE ... FROM (VALUES ...)}.
+     * Rows that do not belong to {@code interviewId} are left untouched.
+     *
+     * @return number of rows updated
+     */
+    public int updateAnswers(UUID interviewId, Map<UUID, String> answers) {
+        if (answers.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("UPDATE interview_questions AS iq SET user_answer = v.answer FROM (VALUES ");
+        int r = 0;
+        for (int i = 0; i < answers.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(CAST(:id").append(i).append(" AS uuid), CAST(:a").append(i).append(" AS text))");
+        }
+        sql.append(") AS v(id, answer) WHERE iq.id = v.id AND iq.interview_id = :interviewId");
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("interviewId", interviewId);
+        for (Map.Entry<UUID, String> answer : answers.entrySet()) {
+            query.setParameter("id" + r, answer.getKey());
+            query.setParameter("a" + r, answer.getValue());
+            r++;
+        }
+        return query.executeUpdate();
+    }
+
     public List<Interview> findByUserId(UUID userId) {
         return entityManager
                 .createQuery("SELECT i FROM Interview i WHERE i.user.id = :userId", Interview.class)
@@ -29,6 +139,35 @@ public class InterviewRepository {
                 .getResultList();
     }
 
+    /**
+     * Seek pagination over a user's interviews, newest first, ordered by
+     * {@code (start_time, id)} and served by the
+     * {@code interviews_user_start_idx} index. Pass a {@code null} cursor for
+     * the first page.
+     */
+    public List<InterviewHistoryItemDto> findHistoryPage(UUID userId, Instant cursorStart,
+                                                         UUID cursorId, int limit) {
+        String seek = cursorStart == null ? ""
+                : " AND (i.startTime < :cursorStart"
+                + " OR (i.startTime = :cursorStart AND i.id < :cursorId))";
+        TypedQuery<InterviewHistoryItemDto> query = entityManager
+                .createQuery("SELECT new dereck.angeles.dto.InterviewHistoryItemDto("
+                        + "i.id, t.name, l.name, d.level, i.status, i.startTime, i.endTime)"
+                        + " FROM Interview i"
+                        + " LEFT JOIN i.topic t"
+                        + " LEFT JOIN i.language l"
+                        + " LEFT JOIN i.difficulty d"
+                        + " WHERE i.user.id = :userId" + seek
+                        + " ORDER BY i.startTime DESC, i.id DESC", InterviewHistoryItemDto.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (cursorStart != null) {
+            query.setParameter("cursorStart", cursorStart)
+                    .setParameter("cursorId", cursorId);
+        }
+        return query.getResultList();
+    }
+
     public List<Interview> findAll() {
         return entityManager
                 .createQuery("SELECT i FROM Interview i", Interview.class)
@@ -0,0 +1,27 @@
+package dereck.angeles.repository;
+
+import dereck.angeles.model.Question;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@ApplicationScoped
+public class QuestionRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    public List<Question> findByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager
+                .createQuery("SELECT q FROM Question q WHERE q.id IN :ids", Question.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+}
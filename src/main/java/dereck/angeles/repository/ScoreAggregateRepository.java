@@ -0,0 +1,234 @@
+package dereck.angeles.repository;
+
+import dereck.angeles.model.ScoreAggregate;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native SQL for {@code score_aggregates}. Increments are applied with a
+ * multi-row {@code INSERT ... ON CONFLICT DO UPDATE}; recomputation uses the
+ * same {@code GROUP BY} over {@code feedback JOIN interviews} as the full
+ * rebuild, restricted to the affected keys.
+ */
+@ApplicationScoped
+public class ScoreAggregateRepository {
+
+    /**
+     * Running totals to add to one aggregate row. Min/max are {@code null}
+     * when there is no score of that kind.
+     */
+    public record Delta(String dimension, String key, UUID userId, UUID topicId, UUID languageId,
+                        UUID difficultyId, long feedbackCount,
+                        long technicalCount, long technicalSum, Integer technicalMin, Integer technicalMax,
+                        long nonTechnicalCount, long nonTechnicalSum, Integer nonTechnicalMin,
+                        Integer nonTechnicalMax, long wouldHireCount) {
+    }
+
+    /**
+     * One feedback row with the dimensions of its interview.
+     */
+    public record Contribution(UUID interviewId, UUID userId, UUID topicId, UUID languageId, UUID difficultyId,
+                               Integer technicalScore, Integer nonTechnicalScore, Boolean wouldHire) {
+    }
+
+    private static final String COLUMNS = """
+            dimension, dimension_key, user_id, topic_id, language_id, difficulty_id,
+            feedback_count, technical_count, technical_sum, technical_min, technical_max,
+            non_technical_count, non_technical_sum, non_technical_min, non_technical_max,
+            would_hire_count, updated_at""";
+
+    private static final String AGGREGATES = """
+            COUNT(*), COUNT(f.technical_score), COALESCE(SUM(f.technical_score), 0),
+            MIN(f.technical_score), MAX(f.technical_score),
+            COUNT(f.non_technical_score), COALESCE(SUM(f.non_technical_score), 0),
+            MIN(f.non_technical_score), MAX(f.non_technical_score),
+            COUNT(*) FILTER (WHERE f.would_hire), CURRENT_TIMESTAMP""";
+
+    private static final String SEGMENT_KEY = """
+            COALESCE(CAST(i.topic_id AS text), '-') || ':' || COALESCE(CAST(i.language_id AS text), '-')
+            || ':' || COALESCE(CAST(i.difficulty_id AS text), '-')""";
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Feedback of the given interviews as visible in the current transaction.
+     */
+    public List<Contribution> findContributions(Collection<UUID> interviewIds) {
+        if (interviewIds.isEmpty()) {
+            return List.of();
+        }
+        List<Object[]> rows = entityManager.createQuery("""
+                        SELECT i.id, i.user.id, i.topic.id, i.language.id, i.difficulty.id,
+                               f.technicalScore, f.nonTechnicalScore, f.wouldHire
+                        FROM Feedback f JOIN f.interview i
+                        WHERE i.id IN :ids""", Object[].class)
+                .setParameter("ids", interviewIds)
+                .getResultList();
+        List<Contribution> contributions = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            contributions.add(new Contribution((UUID) row[0], (UUID) row[1], (UUID) row[2], (UUID) row[3],
+                    (UUID) row[4], (Integer) row[5], (Integer) row[6], (Boolean) row[7]));
+        }
+        return contributions;
+    }
+
+    /**
+     * Adds the deltas to their rows, creating missing rows. Callers should
+     * pass deltas in a stable key order so concurrent transactions lock rows
+     * in the same order.
+     */
+    public void applyDeltas(List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO score_aggregates (").append(COLUMNS).append(") VALUES ");
+        for (int r = 0; r < deltas.size(); r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:dimension").append(r).append(", :key").append(r)
+                    .append(", :user").append(r).append(", :topic").append(r)
+                    .append(", :language").append(r).append(", :difficulty").append(r)
+                    .append(", :count").append(r)
+                    .append(", :tCount").append(r).append(", :tSum").append(r)
+                    .append(", :tMin").append(r).append(", :tMax").append(r)
+                    .append(", :nCount").append(r).append(", :nSum").append(r)
+                    .append(", :nMin").append(r).append(", :nMax").append(r)
+                    .append(", :hire").append(r).append(", CURRENT_TIMESTAMP)");
+        }
+        sql.append("""
+                 ON CONFLICT (dimension, dimension_key) DO UPDATE SET
+                feedback_count = score_aggregates.feedback_count + EXCLUDED.feedback_count,
+                technical_count = score_aggregates.technical_count + EXCLUDED.technical_count,
+                technical_sum = score_aggregates.technical_sum + EXCLUDED.technical_sum,
+                technical_min = LEAST(score_aggregates.technical_min, EXCLUDED.technical_min),
+                technical_max = GREATEST(score_aggregates.technical_max, EXCLUDED.technical_max),
+                non_technical_count = score_aggregates.non_technical_count + EXCLUDED.non_technical_count,
+                non_technical_sum = score_aggregates.non_technical_sum + EXCLUDED.non_technical_sum,
+                non_technical_min = LEAST(score_aggregates.non_technical_min, EXCLUDED.non_technical_min),
+                non_technical_max = GREATEST(score_aggregates.non_technical_max, EXCLUDED.non_technical_max),
+                would_hire_count = score_aggregates.would_hire_count + EXCLUDED.would_hire_count,
+                updated_at = EXCLUDED.updated_at""");
+
+        // Typed binding: most rows carry null ids or min/max
+        NativeQuery<?> query = entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class);
+        for (int r = 0; r < deltas.size(); r++) {
+            Delta d = deltas.get(r);
+            query.setParameter("dimension" + r, d.dimension())
+                    .setParameter("key" + r, d.key())
+                    .setParameter("user" + r, d.userId(), UUID.class)
+                    .setParameter("topic" + r, d.topicId(), UUID.class)
+                    .setParameter("language" + r, d.languageId(), UUID.class)
+                    .setParameter("difficulty" + r, d.difficultyId(), UUID.class)
+                    .setParameter("count" + r, d.feedbackCount())
+                    .setParameter("tCount" + r, d.technicalCount())
+                    .setParameter("tSum" + r, d.technicalSum())
+                    .setParameter("tMin" + r, d.technicalMin(), Integer.class)
+                    .setParameter("tMax" + r, d.technicalMax(), Integer.class)
+                    .setParameter("nCount" + r, d.nonTechnicalCount())
+                    .setParameter("nSum" + r, d.nonTechnicalSum())
+                    .setParameter("nMin" + r, d.nonTechnicalMin(), Integer.class)
+                    .setParameter("nMax" + r, d.nonTechnicalMax(), Integer.class)
+                    .setParameter("hire" + r, d.wouldHireCount());
+        }
+        query.executeUpdate();
+    }
+
+    /**
+     * Blocks concurrent increments until this transaction ends, so a rebuild
+     * neither loses nor double counts feedback written meanwhile.
+     */
+    public void lockForRebuild() {
+        entityManager.createNativeQuery("LOCK TABLE score_aggregates IN SHARE ROW EXCLUSIVE MODE")
+                .executeUpdate();
+    }
+
+    /**
+     * Recomputes every aggregate from {@code feedback}.
+     *
+     * @return number of aggregate rows written
+     */
+    public int rebuildAll() {
+        entityManager.createNativeQuery("DELETE FROM score_aggregates").executeUpdate();
+        return insertUsers("") + insertSegments("");
+    }
+
+    /**
+     * Recomputes the USER rows of {@code userIds} and the SEGMENT rows of
+     * {@code segmentKeys}.
+     */
+    public void recompute(Collection<UUID> userIds, Collection<String> segmentKeys) {
+        if (!userIds.isEmpty()) {
+            entityManager.createNativeQuery(
+                            "DELETE FROM score_aggregates WHERE dimension = 'USER' AND user_id IN (:userIds)")
+                    .setParameter("userIds", userIds)
+                    .executeUpdate();
+            insertUsers(" AND i.user_id IN (:userIds)", "userIds", userIds);
+        }
+        if (!segmentKeys.isEmpty()) {
+            entityManager.createNativeQuery(
+                            "DELETE FROM score_aggregates WHERE dimension = 'SEGMENT' AND dimension_key IN (:keys)")
+                    .setParameter("keys", segmentKeys)
+                    .executeUpdate();
+            insertSegments(" AND " + SEGMENT_KEY + " IN (:keys)", "keys", segmentKeys);
+        }
+    }
+
+    public ScoreAggregate find(String dimension, String key) {
+        List<ScoreAggregate> rows = entityManager.createQuery(
+                        "SELECT a FROM ScoreAggregate a WHERE a.id.dimension = :dimension AND a.id.dimensionKey = :key",
+                        ScoreAggregate.class)
+                .setParameter("dimension", dimension)
+                .setParameter("key", key)
+                .getResultList();
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * SEGMENT rows, optionally filtered; {@code null} filters match all.
+     */
+    public List<ScoreAggregate> findSegments(UUID topicId, UUID languageId, UUID difficultyId) {
+        return entityManager.createQuery("""
+                        SELECT a FROM ScoreAggregate a
+                        WHERE a.id.dimension = 'SEGMENT'
+                        AND (:topicId IS NULL OR a.topicId = :topicId)
+                        AND (:languageId IS NULL OR a.languageId = :languageId)
+                        AND (:difficultyId IS NULL OR a.difficultyId = :difficultyId)
+                        ORDER BY a.feedbackCount DESC""", ScoreAggregate.class)
+                .setParameter("topicId", topicId)
+                .setParameter("languageId", languageId)
+                .setParameter("difficultyId", difficultyId)
+                .getResultList();
+    }
+
+    private int insertUsers(String filter, Object... parameter) {
+        return insert("'USER', CAST(i.user_id AS text), i.user_id, NULL, NULL, NULL",
+                " AND i.user_id IS NOT NULL" + filter, "i.user_id", parameter);
+    }
+
+    private int insertSegments(String filter, Object... parameter) {
+        return insert("'SEGMENT', " + SEGMENT_KEY + ", NULL, i.topic_id, i.language_id, i.difficulty_id",
+                filter, "i.topic_id, i.language_id, i.difficulty_id", parameter);
+    }
+
+    private int insert(String keyColumns, String filter, String groupBy, Object... parameter) {
+        Query query = entityManager.createNativeQuery("INSERT INTO score_aggregates (" + COLUMNS + ")"
+                + " SELECT " + keyColumns + ", " + AGGREGATES
+                + " FROM feedback f JOIN interviews i ON i.id = f.interview_id"
+                + " WHERE TRUE" + filter
+                + " GROUP BY " + groupBy);
+        if (parameter.length == 2) {
+            query.setParameter((String) parameter[0], parameter[1]);
+        }
+        return query.executeUpdate();
+    }
+}
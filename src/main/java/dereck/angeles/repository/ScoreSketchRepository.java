@@ -0,0 +1,155 @@
+package dereck.angeles.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Native SQL for {@code score_sketches}, the serialized score histograms per
+ * topic/language/difficulty segment.
+ */
+@ApplicationScoped
+public class ScoreSketchRepository {
+
+    /**
+     * One stored row; histograms are {@code ScoreHistogram} bytes.
+     */
+    public record Row(String segmentKey, UUID topicId, UUID languageId, UUID difficultyId,
+                      byte[] technical, byte[] nonTechnical) {
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    public List<Row> findAll() {
+        List<?> rows = entityManager.createNativeQuery("""
+                        SELECT segment_key, topic_id, language_id, difficulty_id, technical, non_technical
+                        FROM score_sketches""")
+                .getResultList();
+        return rows.stream().map(r -> toRow((Object[]) r)).toList();
+    }
+
+    /**
+     * Row-locks the given segments in key order, so concurrent writers merge
+     * instead of overwriting and can't deadlock each other.
+     */
+    public Map<String, Row> findForUpdate(Collection<String> segmentKeys) {
+        List<?> rows = entityManager.createNativeQuery("""
+                        SELECT segment_key, topic_id, language_id, difficulty_id, technical, non_technical
+                        FROM score_sketches WHERE segment_key IN (:keys)
+                        ORDER BY segment_key FOR UPDATE""")
+                .setParameter("keys", segmentKeys)
+                .getResultList();
+        Map<String, Row> byKey = new HashMap<>();
+        for (Object row : rows) {
+            Row sketch = toRow((Object[]) row);
+            byKey.put(sketch.segmentKey(), sketch);
+        }
+        return byKey;
+    }
+
+    /**
+     * Inserts the row unless another transaction already did; an existing
+     * row is left untouched.
+     */
+    public void insertIfAbsent(Row row) {
+        upsert(row, "DO NOTHING");
+    }
+
+    /**
+     * Inserts or replaces the row.
+     */
+    public void save(Row row) {
+        upsert(row, """
+                DO UPDATE SET technical = EXCLUDED.technical, non_technical = EXCLUDED.non_technical,
+                updated_at = EXCLUDED.updated_at""");
+    }
+
+    /**
+     * Creates the epoch row if it is missing.
+     */
+    public void ensureEpoch() {
+        entityManager.createNativeQuery("""
+                        INSERT INTO score_sketch_epoch (id, epoch) VALUES (1, 0)
+                        ON CONFLICT (id) DO NOTHING""")
+                .executeUpdate();
+    }
+
+    public long findEpoch() {
+        return ((Number) entityManager.createNativeQuery("SELECT epoch FROM score_sketch_epoch WHERE id = 1")
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Reads the epoch and keeps it from changing until this transaction ends;
+     * {@link #advanceEpoch} waits for all such readers.
+     */
+    public long lockEpochShared() {
+        return ((Number) entityManager.createNativeQuery(
+                        "SELECT epoch FROM score_sketch_epoch WHERE id = 1 FOR SHARE")
+                .getSingleResult()).longValue();
+    }
+
+    public void advanceEpoch() {
+        entityManager.createNativeQuery("UPDATE score_sketch_epoch SET epoch = epoch + 1 WHERE id = 1")
+                .executeUpdate();
+    }
+
+    /**
+     * Blocks concurrent {@link #findForUpdate} writers until this transaction
+     * ends.
+     */
+    public void lockForRebuild() {
+        entityManager.createNativeQuery("LOCK TABLE score_sketches IN SHARE ROW EXCLUSIVE MODE")
+                .executeUpdate();
+    }
+
+    public void deleteAll() {
+        entityManager.createNativeQuery("DELETE FROM score_sketches").executeUpdate();
+    }
+
+    /**
+     * Returns {@code [topicId, languageId, difficultyId, technicalScore,
+     * nonTechnicalScore, count]} for all feedback, grouped by segment and
+     * score pair.
+     */
+    public List<Object[]> findScoreCounts() {
+        List<?> rows = entityManager.createNativeQuery("""
+                        SELECT i.topic_id, i.language_id, i.difficulty_id,
+                               f.technical_score, f.non_technical_score, COUNT(*)
+                        FROM feedback f JOIN interviews i ON i.id = f.interview_id
+                        GROUP BY i.topic_id, i.language_id, i.difficulty_id,
+                                 f.technical_score, f.non_technical_score""")
+                .getResultList();
+        return rows.stream().map(r -> (Object[]) r).toList();
+    }
+
+    private void upsert(Row row, String onConflict) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO score_sketches (segment_key, topic_id, language_id, difficulty_id,
+                                                    technical, non_technical, updated_at)
+                        VALUES (:key, :topicId, :languageId, :difficultyId,
+                                :technical, :nonTechnical, CURRENT_TIMESTAMP)
+                        ON CONFLICT (segment_key) """ + onConflict)
+                .unwrap(NativeQuery.class)
+                .setParameter("key", row.segmentKey())
+                .setParameter("topicId", row.topicId(), UUID.class)
+                .setParameter("languageId", row.languageId(), UUID.class)
+                .setParameter("difficultyId", row.difficultyId(), UUID.class)
+                .setParameter("technical", row.technical())
+                .setParameter("nonTechnical", row.nonTechnical())
+                .executeUpdate();
+    }
+
+    private static Row toRow(Object[] row) {
+        return new Row((String) row[0], (UUID) row[1], (UUID) row[2], (UUID) row[3],
+                (byte[]) row[4], (byte[]) row[5]);
+    }
+}
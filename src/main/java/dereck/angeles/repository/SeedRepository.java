@@ -0,0 +1,118 @@
+package dereck.angeles.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Native SQL used by reference data seeding. Everything here is set based:
+ * one query to find existing keys and one multi-row insert per table.
+ */
+@ApplicationScoped
+public class SeedRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Blocks until this transaction holds the Postgres advisory lock for
+     * {@code key}. The lock is released automatically on commit or rollback,
+     * so concurrent pods seed one at a time.
+     */
+    public void lockForTransaction(long key) {
+        entityManager.createNativeQuery("SELECT pg_advisory_xact_lock(:key)")
+                .setParameter("key", key)
+                .getSingleResult();
+    }
+
+    public String findChecksum(String name) {
+        List<?> rows = entityManager
+                .createNativeQuery("SELECT checksum FROM seed_state WHERE name = :name")
+                .setParameter("name", name)
+                .getResultList();
+        return rows.isEmpty() ? null : (String) rows.get(0);
+    }
+
+    public void saveChecksum(String name, String checksum) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO seed_state (name, checksum, applied_at)
+                        VALUES (:name, :checksum, CURRENT_TIMESTAMP)
+                        ON CONFLICT (name) DO UPDATE
+                        SET checksum = EXCLUDED.checksum, applied_at = EXCLUDED.applied_at""")
+                .setParameter("name", name)
+                .setParameter("checksum", checksum)
+                .executeUpdate();
+    }
+
+    /**
+     * Returns which of {@code keys} already exist in {@code table.column}.
+     * Table and column names come from code, never from input.
+     */
+    public Set<String> findExisting(String table, String column, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        List<?> rows = entityManager
+                .createNativeQuery("SELECT " + column + " FROM " + table + " WHERE " + column + " IN (:keys)")
+                .setParameter("keys", keys)
+                .getResultList();
+        Set<String> existing = new HashSet<>();
+        for (Object row : rows) {
+            existing.add((String) row);
+        }
+        return existing;
+    }
+
+    /**
+     * Inserts rows into {@code table} with a single multi-row
+     * {@code INSERT ... ON CONFLICT (conflictColumn) DO NOTHING}. Ids are
+     * generated here so the statement does not depend on database defaults.
+     * Extra SQL expressions (e.g. {@code CURRENT_TIMESTAMP}) can be appended
+     * to every row through {@code constantColumns}/{@code constantValues}.
+     *
+     * @return number of rows actually inserted
+     */
+    public int insertIgnoringConflicts(String table, String conflictColumn, List<String> columns,
+                                       List<Object[]> rows, String constantColumns, String constantValues) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (id, ")
+                .append(String.join(", ", columns));
+        if (constantColumns != null) {
+            sql.append(", ").append(constantColumns);
+        }
+        sql.append(") VALUES ");
+        for (int r = 0; r < rows.size(); r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(r);
+            for (int c = 0; c < columns.size(); c++) {
+                sql.append(", :p").append(r).append('_').append(c);
+            }
+            if (constantValues != null) {
+                sql.append(", ").append(constantValues);
+            }
+            sql.append(')');
+        }
+        sql.append(" ON CONFLICT (").append(conflictColumn).append(") DO NOTHING");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        for (int r = 0; r < rows.size(); r++) {
+            Object[] row = rows.get(r);
+            query.setParameter("id" + r, UUID.randomUUID());
+            for (int c = 0; c < columns.size(); c++) {
+                query.setParameter("p" + r + "_" + c, row[c]);
+            }
+        }
+        return query.executeUpdate();
+    }
+}
@@ -0,0 +1,79 @@
+package dereck.angeles.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Native SQL for {@code user_seen_questions}, the per-user bitmap of asked
+ * question ordinals.
+ */
+@ApplicationScoped
+public class SeenQuestionRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Returns the stored bitmap, or {@code null} if the user has none yet.
+     */
+    public byte[] findBitmap(UUID userId) {
+        List<?> rows = entityManager
+                .createNativeQuery("SELECT bitmap FROM user_seen_questions WHERE user_id = :userId")
+                .setParameter("userId", userId)
+                .getResultList();
+        return rows.isEmpty() ? null : (byte[]) rows.get(0);
+    }
+
+    /**
+     * Like {@link #findBitmap(UUID)} but row-locks the bitmap until the
+     * transaction ends, so concurrent writers merge instead of overwriting.
+     */
+    public byte[] findBitmapForUpdate(UUID userId) {
+        List<?> rows = entityManager
+                .createNativeQuery("SELECT bitmap FROM user_seen_questions WHERE user_id = :userId FOR UPDATE")
+                .setParameter("userId", userId)
+                .getResultList();
+        return rows.isEmpty() ? null : (byte[]) rows.get(0);
+    }
+
+    /**
+     * Creates the row unless another transaction already did.
+     */
+    public void insertIfAbsent(UUID userId, byte[] bitmap) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO user_seen_questions (user_id, bitmap, updated_at)
+                        VALUES (:userId, :bitmap, CURRENT_TIMESTAMP)
+                        ON CONFLICT (user_id) DO NOTHING""")
+                .setParameter("userId", userId)
+                .setParameter("bitmap", bitmap)
+                .executeUpdate();
+    }
+
+    public void saveBitmap(UUID userId, byte[] bitmap) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO user_seen_questions (user_id, bitmap, updated_at)
+                        VALUES (:userId, :bitmap, CURRENT_TIMESTAMP)
+                        ON CONFLICT (user_id) DO UPDATE
+                        SET bitmap = EXCLUDED.bitmap, updated_at = EXCLUDED.updated_at""")
+                .setParameter("userId", userId)
+                .setParameter("bitmap", bitmap)
+                .executeUpdate();
+    }
+
+    /**
+     * Ordinals of every question already asked to the user. Only used to
+     * backfill a bitmap the first time a user is loaded.
+     */
+    public List<Integer> findAskedOrdinals(UUID userId) {
+        return entityManager.createQuery("""
+                        SELECT DISTINCT q.ordinal FROM InterviewQuestion iq
+                        JOIN iq.question q
+                        WHERE iq.interview.user.id = :userId AND q.ordinal IS NOT NULL""", Integer.class)
+                .setParameter("userId", userId)
+                .getResultList();
+    }
+}
@@ -5,8 +5,13 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class UserRepository {
@@ -14,15 +19,94 @@ public class UserRepository {
 	@Inject
 	EntityManager entityManager;
 
+	/**
+	 * Canonical form used for storage and lookups. Matches the
+	 * {@code lower(email)} unique index on {@code users}.
+	 */
+	public static String normalizeEmail(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
+
 	public User findByEmail(String email) {
 		List<User> users = entityManager
-					.createQuery("SELECT u FROM User u WHERE u.email = :email",
+					.createQuery("SELECT u FROM User u WHERE lower(u.email) = :email",
 											 User.class)
-					.setParameter("email", email)
+					.setParameter("email", normalizeEmail(email))
+					.setMaxResults(1)
 					.getResultList();
 		return users.isEmpty() ? null : users.get(0);
 	}
 
+	/**
+	 * Existence probe that returns a single scalar instead of materializing
+	 * the matching entity.
+	 */
+	public boolean existsByEmail(String email) {
+		Long count = entityManager
+					.createQuery("SELECT count(u.id) FROM User u WHERE lower(u.email) = :email",
+											 Long.class)
+					.setParameter("email", normalizeEmail(email))
+					.getSingleResult();
+		return count > 0;
+	}
+
+	/**
+	 * Returns which of the given (normalized) emails are already registered,
+	 * in one set-based query.
+	 */
+	public Set<String> findExistingEmails(Collection<String> emails) {
+		if (emails.isEmpty()) {
+			return Set.of();
+		}
+		return new HashSet<>(entityManager
+					.createQuery("SELECT lower(u.email) FROM User u WHERE lower(u.email) IN :emails",
+											 String.class)
+					.setParameter("emails", emails)
+					.getResultList());
+	}
+
+	/**
+	 * Creates the {@code lower(email)} unique index from migration V1.0.2 if
+	 * it is missing, for databases whose schema Hibernate manages. Fails if
+	 * {@link #findEmailCaseCollisions()} is not empty.
+	 */
+	public void ensureEmailLowerIndex() {
+		entityManager
+					.createNativeQuery("CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_key ON users (lower(email))")
+					.executeUpdate();
+	}
+
+	/**
+	 * Emails, lower-cased, that more than one account shares when case is
+	 * ignored.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<String> findEmailCaseCollisions() {
+		return entityManager
+					.createNativeQuery("SELECT lower(email) FROM users WHERE email IS NOT NULL "
+																 + "GROUP BY lower(email) HAVING count(*) > 1")
+					.getResultList();
+	}
+
+	public long count() {
+		return entityManager
+					.createQuery("SELECT count(u.id) FROM User u", Long.class)
+					.getSingleResult();
+	}
+
+	/**
+	 * Streams every stored email without loading {@link User} entities. The
+	 * caller must close the stream and run inside a transaction.
+	 */
+	public Stream<String> streamEmails(int fetchSize) {
+		return entityManager
+					.createQuery("SELECT u.email FROM User u WHERE u.email IS NOT NULL",
+											 String.class)
+					.setHint("org.hibernate.fetchSize", fetchSize)
+					.setHint("org.hibernate.readOnly", true)
+					.getResultStream();
+	}
+
 	public User findById(UUID id) {
 		return entityManager.find(User.class, id);
 	}
@@ -30,4 +114,4 @@ public class UserRepository {
 	public void persist(User user) {
 		entityManager.persist(user);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package dereck.angeles.repository;
+
+import dereck.angeles.model.VerificationToken;
+import dereck.angeles.model.VerificationTokenId;
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.OffsetDateTime;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class VerificationTokenRepository implements PanacheRepositoryBase<VerificationToken, VerificationTokenId> {
+
+    /**
+     * Streams tokens that have not expired yet. Must run inside a transaction
+     * and the caller must close the stream.
+     */
+    public Stream<VerificationToken> streamOutstanding(OffsetDateTime now) {
+        return find("expires > ?1", now).stream();
+    }
+
+    /**
+     * Purges every expired token with a single range delete on the
+     * {@code expires} index.
+     */
+    public long deleteExpired(OffsetDateTime now) {
+        return delete("expires <= ?1", now);
+    }
+
+    public VerificationToken findByIdentifierAndToken(String identifier, String token) {
+        VerificationTokenId id = new VerificationTokenId();
+        id.setIdentifier(identifier);
+        id.setToken(token);
+        return findById(id);
+    }
+
+    public boolean deleteByIdentifierAndToken(String identifier, String token) {
+        return delete("id.identifier = ?1 and id.token = ?2", identifier, token) > 0;
+    }
+}
@@ -0,0 +1,272 @@
+package dereck.angeles.service;
+
+import dereck.angeles.config.DatabasePermits;
+import dereck.angeles.dto.AnswerAckDto;
+import dereck.angeles.dto.AnswerSubmissionDto;
+import dereck.angeles.repository.InterviewRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers answers per interview and writes them in batches.
+ * <p>
+ * During a live interview the client sends many partial answers. Each
+ * submission is validated against the interview owner and the interview's
+ * questions (one query each per interview, cached with the buffer and
+ * reloaded when an unknown question shows up), merged into an in-memory buffer
+ * where the highest {@code sequence} per question wins, and acknowledged
+ * without touching the database. Buffers are flushed with one multi-row
+ * {@code UPDATE} per interview: on a timer, when an interview has
+ * {@code flush-threshold} pending answers, on an explicit durable flush, and
+ * at shutdown. Answers are durable only once a flush has returned; a failed
+ * flush puts the answers back unless newer ones arrived meanwhile.
+ */
+@ApplicationScoped
+public class AnswerIngestionService {
+    private static final Logger logger = LoggerFactory.getLogger(AnswerIngestionService.class);
+
+    @Inject
+    InterviewRepository interviewRepository;
+
+    @Inject
+    DatabasePermits databasePermits;
+
+    @ConfigProperty(name = "app.answers.flush-threshold", defaultValue = "50")
+    int flushThreshold;
+
+    @ConfigProperty(name = "app.answers.idle-timeout", defaultValue = "PT30M")
+    Duration idleTimeout;
+
+    private final Map<UUID, Buffer> buffers = new ConcurrentHashMap<>();
+
+    private record Pending(String answer, long sequence) {
+    }
+
+    private static final class Buffer {
+        final UUID userId;
+        // interview_questions of this interview; grows as questions are asked
+        final Set<UUID> questionIds = ConcurrentHashMap.newKeySet();
+        final Map<UUID, Pending> answers = new LinkedHashMap<>();
+        // Highest sequence already written per question
+        final Map<UUID, Long> flushedSequences = new HashMap<>();
+        // Sequences drained by the running flush and not yet committed
+        final Map<UUID, Long> writingSequences = new HashMap<>();
+        // Held across the JDBC write; a lock rather than a monitor so virtual threads unmount while waiting
+        final ReentrantLock flushLock = new ReentrantLock();
+        long lastActivity = System.currentTimeMillis();
+        boolean closed;
+
+        Buffer(UUID userId) {
+            this.userId = userId;
+        }
+    }
+
+    /**
+     * Buffers the answers and returns immediately unless the interview's
+     * buffer reached the flush threshold or {@code durable} is requested, in
+     * which case the interview is flushed before returning. Answers for
+     * questions that don't belong to the interview are rejected.
+     */
+    public AnswerAckDto submit(UUID interviewId, UUID userId, List<AnswerSubmissionDto> submissions,
+                               boolean durable) {
+        int accepted;
+        int rejected;
+        int pending;
+        while (true) {
+            Buffer buffer = bufferFor(interviewId, userId);
+            loadQuestionIds(interviewId, buffer, submissions);
+            accepted = 0;
+            rejected = 0;
+            synchronized (buffer) {
+                if (buffer.closed) {
+                    // Evicted concurrently; start a fresh buffer
+                    continue;
+                }
+                for (AnswerSubmissionDto submission : submissions) {
+                    if (submission.interviewQuestionId() == null
+                            || !buffer.questionIds.contains(submission.interviewQuestionId())) {
+                        rejected++;
+                        continue;
+                    }
+                    if (merge(buffer, submission.interviewQuestionId(),
+                            new Pending(submission.answer(), submission.sequence()))) {
+                        accepted++;
+                    }
+                }
+                buffer.lastActivity = System.currentTimeMillis();
+                pending = buffer.answers.size();
+            }
+            break;
+        }
+
+        if (durable || pending >= flushThreshold) {
+            flush(interviewId);
+            return new AnswerAckDto(accepted, rejected, 0, true);
+        }
+        return new AnswerAckDto(accepted, rejected, pending, false);
+    }
+
+    /**
+     * Reloads the interview's question ids if a submission names one the
+     * buffer doesn't know yet, e.g. a question asked since the last load.
+     */
+    private void loadQuestionIds(UUID interviewId, Buffer buffer, List<AnswerSubmissionDto> submissions) {
+        for (AnswerSubmissionDto submission : submissions) {
+            UUID id = submission.interviewQuestionId();
+            if (id != null && !buffer.questionIds.contains(id)) {
+                buffer.questionIds.addAll(findQuestionIds(interviewId));
+                return;
+            }
+        }
+    }
+
+    private Buffer bufferFor(UUID interviewId, UUID userId) {
+        Buffer buffer = buffers.get(interviewId);
+        if (buffer == null) {
+            if (!userId.equals(findOwner(interviewId))) {
+                throw new IllegalArgumentException("Interview not found");
+            }
+            buffer = buffers.computeIfAbsent(interviewId, id -> new Buffer(userId));
+        }
+        if (!buffer.userId.equals(userId)) {
+            throw new IllegalArgumentException("Interview not found");
+        }
+        return buffer;
+    }
+
+    /**
+     * Writes the interview's pending answers and returns once they are
+     * committed.
+     */
+    public int flush(UUID interviewId) {
+        Buffer buffer = buffers.get(interviewId);
+        if (buffer == null) {
+            return 0;
+        }
+        // Serializes flushes of one interview so a slow batch can't overwrite a newer one
+        buffer.flushLock.lock();
+        try {
+            Map<UUID, Pending> drained;
+            synchronized (buffer) {
+                if (buffer.answers.isEmpty()) {
+                    return 0;
+                }
+                drained = new LinkedHashMap<>(buffer.answers);
+                buffer.answers.clear();
+                // Until the write commits, older retries must still lose against the drained answers
+                drained.forEach((id, pending) -> buffer.writingSequences.put(id, pending.sequence()));
+            }
+            Map<UUID, String> answers = new LinkedHashMap<>();
+            drained.forEach((id, pending) -> answers.put(id, pending.answer()));
+            try {
+                writeAnswers(interviewId, answers);
+            } catch (RuntimeException e) {
+                synchronized (buffer) {
+                    buffer.writingSequences.clear();
+                    drained.forEach((id, pending) -> merge(buffer, id, pending));
+                }
+                throw e;
+            }
+            synchronized (buffer) {
+                drained.forEach((id, pending) -> buffer.flushedSequences.merge(id, pending.sequence(), Math::max));
+                buffer.writingSequences.clear();
+            }
+            return answers.size();
+        } finally {
+            buffer.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the buffer of an interview that has ended, after flushing it.
+     */
+    public void close(UUID interviewId) {
+        flush(interviewId);
+        evict(interviewId, 0);
+    }
+
+    @Scheduled(every = "${app.answers.flush-interval:500ms}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flushAll() {
+        for (UUID interviewId : buffers.keySet()) {
+            try {
+                flush(interviewId);
+                evict(interviewId, idleTimeout.toMillis());
+            } catch (RuntimeException e) {
+                logger.warn("Failed to flush answers for interview {}, will retry: {}",
+                        interviewId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes the buffer if it is empty and idle for at least {@code idleMillis}.
+     */
+    private void evict(UUID interviewId, long idleMillis) {
+        Buffer buffer = buffers.get(interviewId);
+        if (buffer == null) {
+            return;
+        }
+        synchronized (buffer) {
+            if (buffer.answers.isEmpty()
+                    && System.currentTimeMillis() - buffer.lastActivity >= idleMillis) {
+                buffer.closed = true;
+                buffers.remove(interviewId, buffer);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushAll();
+    }
+
+    UUID findOwner(UUID interviewId) {
+        Object[] setup = databasePermits.call(() -> QuarkusTransaction.requiringNew()
+                .call(() -> interviewRepository.findOwnerAndBucket(interviewId)));
+        return setup == null ? null : (UUID) setup[0];
+    }
+
+    List<UUID> findQuestionIds(UUID interviewId) {
+        return databasePermits.call(() -> QuarkusTransaction.requiringNew()
+                .call(() -> interviewRepository.findQuestionIds(interviewId)));
+    }
+
+    void writeAnswers(UUID interviewId, Map<UUID, String> answers) {
+        databasePermits.run(() -> QuarkusTransaction.requiringNew()
+                .run(() -> interviewRepository.updateAnswers(interviewId, answers)));
+    }
+
+    private static boolean merge(Buffer buffer, UUID interviewQuestionId, Pending next) {
+        Pending current = buffer.answers.get(interviewQuestionId);
+        if (current != null && current.sequence() >= next.sequence()) {
+            return false;
+        }
+        Long flushed = buffer.flushedSequences.get(interviewQuestionId);
+        if (flushed != null && flushed >= next.sequence()) {
+            return false;
+        }
+        Long writing = buffer.writingSequences.get(interviewQuestionId);
+        if (writing != null && writing >= next.sequence()) {
+            return false;
+        }
+        buffer.answers.put(interviewQuestionId, next);
+        return true;
+    }
+}
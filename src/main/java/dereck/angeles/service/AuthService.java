@@ -1,12 +1,13 @@
 package dereck.angeles.service;
 
+import dereck.angeles.config.DatabasePermits;
 import dereck.angeles.dto.LoginDto;
 import dereck.angeles.dto.RegisterDto;
 import dereck.angeles.model.User;
 import dereck.angeles.repository.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -27,23 +28,37 @@ public class AuthService {
 	@Inject
 	UserRepository userRepository;
 
-	@Transactional
+	@Inject
+	KnownEmailFilter knownEmailFilter;
+
+	@Inject
+	DatabasePermits databasePermits;
+
+	/**
+	 * Hashing is CPU-bound, so it runs outside the transaction and without a
+	 * database permit; the unique email index catches a concurrent duplicate.
+	 */
 	public User register(RegisterDto registerDto) throws Exception {
 		if (!registerDto.password().equals(registerDto.confirmPassword())) {
 			throw new Exception("Passwords do not match");
 		}
 
-		if (userRepository.findByEmail(registerDto.email()) != null) {
+		String email = UserRepository.normalizeEmail(registerDto.email());
+		// Most new emails are rejected by the filter and never reach the database
+		if (knownEmailFilter.mightContain(email)
+					&& databasePermits.call(() -> QuarkusTransaction.requiringNew()
+								.call(() -> userRepository.existsByEmail(email)))) {
 			throw new Exception("Email already registered");
 		}
 
 		User user = new User();
 		user.setName(registerDto.name());
-		user.setEmail(registerDto.email());
+		user.setEmail(email);
 		user.setPassword(BCrypt.hashpw(registerDto.password(), BCrypt.gensalt()));
 		user.setRole(User.AuthRole.USER);
 		user.setCreatedAt(Instant.now());
-		userRepository.persist(user);
+		databasePermits.run(() -> QuarkusTransaction.requiringNew().run(() -> userRepository.persist(user)));
+		knownEmailFilter.add(email);
 
 		return user;
 	}
@@ -52,7 +67,7 @@ public class AuthService {
 		// Log the incoming login request (be careful not to log passwords!)
 		logger.info("Login attempt for email: {}", loginDto.email());
 
-		User user = userRepository.findByEmail(loginDto.email());
+		User user = databasePermits.call(() -> userRepository.findByEmail(loginDto.email()));
 		if (user == null) {
 			logger.warn("Login failed: User not found for email: {}",
 									loginDto.email());
@@ -67,10 +82,6 @@ public class AuthService {
 
 		logger.info("Password verification successful for user: {}",
 								user.getName());
-		logger.info("password with hash: {}", user.getPassword());
-		logger.info("password without hash: {}", loginDto.password());
-		logger.info("are the password the same?: {}",
-								BCrypt.checkpw(loginDto.password(), user.getPassword()));
 
 		String token;
 		try {
@@ -94,7 +105,7 @@ public class AuthService {
 	}
 
 	public User getUserById(UUID userId) {
-		return userRepository.findById(userId);
+		return databasePermits.call(() -> userRepository.findById(userId));
 	}
 
 	@Setter
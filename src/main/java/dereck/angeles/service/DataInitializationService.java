@@ -1,133 +1,207 @@
 package dereck.angeles.service;
 
 import dereck.angeles.model.Difficulty;
-import dereck.angeles.model.Language;
-import dereck.angeles.model.Topic;
-import dereck.angeles.repository.DifficultyRepository;
-import dereck.angeles.repository.LanguageRepository;
-import dereck.angeles.repository.TopicRepository;
+import dereck.angeles.repository.SeedRepository;
 import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
-
-import java.time.Instant;
-import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
-
+import java.util.Set;
+
+/**
+ * Seeds topics, languages and difficulties at startup.
+ * <p>
+ * Seeding is idempotent and safe to run from several pods at once:
+ * <ul>
+ *   <li>a checksum of the seed definitions is stored in {@code seed_state};
+ *   when it matches, startup does one query and returns,</li>
+ *   <li>otherwise the transaction takes a Postgres advisory lock, re-checks
+ *   the checksum, and for each table finds existing keys with one query and
+ *   inserts the missing rows with one {@code INSERT ... ON CONFLICT DO
+ *   NOTHING}.</li>
+ * </ul>
+ * Existing rows are never deleted or rewritten, so ids referenced from
+ * {@code interviews} stay stable across restarts.
+ */
 @ApplicationScoped
 public class DataInitializationService {
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializationService.class);
+
+    static final String SEED_NAME = "reference-data";
+    // Arbitrary application-wide key for pg_advisory_xact_lock
+    static final long SEED_LOCK_KEY = 0x5EED_0001L;
+
+    // Technologies are the ones named in each description; they seed SkillExtractionService
+    static final List<TopicData> TOPICS = List.of(
+        new TopicData("Fullstack", "Questions about developing applications involving both frontend and backend, using technologies like React, Angular, Vue.js, Node.js, Django, and more.",
+                List.of("React", "Angular", "Vue.js", "Node.js", "Django")),
+        new TopicData("Backend", "Questions about server-side development, including databases, APIs, frameworks like Spring Boot, Express.js, and languages like Java, Python, and PHP.",
+                List.of("Spring Boot", "Express.js", "Java", "Python", "PHP")),
+        new TopicData("Frontend", "Questions about user interface development, using technologies like HTML, CSS, JavaScript, React, Angular, and Vue.js.",
+                List.of("HTML", "CSS", "JavaScript", "React", "Angular", "Vue.js")),
+        new TopicData("DevOps", "Questions about continuous integration and deployment, infrastructure management, tools like Docker, Kubernetes, Jenkins, and DevOps practices.",
+                List.of("Docker", "Kubernetes", "Jenkins")),
+        new TopicData("Data Science", "Questions about data analysis, statistics, data visualization, using tools like Python, R, and data analysis platforms.",
+                List.of("Python", "R")),
+        new TopicData("Mobile", "Questions about mobile application development, using technologies like Android, iOS, Flutter, and React Native.",
+                List.of("Android", "iOS", "Flutter", "React Native")),
+        new TopicData("Machine Learning", "Questions about machine learning algorithms, data modeling, using frameworks like TensorFlow, PyTorch, and Scikit-learn.",
+                List.of("TensorFlow", "PyTorch", "Scikit-learn")),
+        new TopicData("Algorithms", "Questions about algorithm design and analysis, data structures, and competitive programming problems.",
+                List.of()),
+        new TopicData("System Design", "Questions about designing scalable systems, software architecture, distributed databases, and microservices design.",
+                List.of("Microservices")),
+        new TopicData("Testing", "Questions about software testing, types of testing (unit, integration, acceptance), testing tools, and testing strategies.",
+                List.of()),
+        new TopicData("Cyber Security", "Questions about computer security, data protection, attack prevention, security tools, and security policies.",
+                List.of()),
+        new TopicData("Cloud Computing", "Questions about cloud computing, AWS, Azure, Google Cloud services, and cloud deployment practices.",
+                List.of("AWS", "Azure", "Google Cloud")),
+        new TopicData("Blockchain", "Questions about blockchain technology, cryptocurrencies, smart contracts, and decentralized applications.",
+                List.of("Smart Contracts")),
+        new TopicData("IoT", "Questions about Internet of Things, connected devices, device communication, and IoT platforms.",
+                List.of("Internet of Things")),
+        new TopicData("AR/VR", "Questions about augmented and virtual reality, AR/VR application development, and technologies like Unity and Unreal Engine.",
+                List.of("Unity", "Unreal Engine")),
+        new TopicData("Quantum Computing", "Questions about quantum computing, quantum algorithms, and quantum computing applications.",
+                List.of()),
+        new TopicData("Game Development", "Questions about video game development, game engines like Unity and Unreal Engine, game design, and game programming.",
+                List.of("Unity", "Unreal Engine"))
+    );
+
+    static final List<String> LANGUAGES = List.of(
+        "Java", "Python", "JavaScript", "Ruby", "C#", "PHP",
+        "Go", "Rust", "Swift", "Kotlin", "TypeScript", "Scala"
+    );
+
+    private static final List<DifficultyData> DIFFICULTIES = List.of(
+        new DifficultyData(Difficulty.DifficultyLevel.Junior, "Basic and fundamental questions for beginner developers. Ideal for those starting in the field and needing to build a solid foundation."),
+        new DifficultyData(Difficulty.DifficultyLevel.MidLevel, "Intermediate questions requiring deeper knowledge of concepts and tools. Ideal for developers with experience in practical projects."),
+        new DifficultyData(Difficulty.DifficultyLevel.Senior, "Advanced and complex questions for field experts. Ideal for those with years of experience seeking more challenging technical problems.")
+    );
 
     @Inject
-    TopicRepository topicRepository;
+    SeedRepository seedRepository;
 
     @Inject
-    LanguageRepository languageRepository;
-
-    @Inject
-    DifficultyRepository difficultyRepository;
+    Event<ReferenceDataChanged> referenceDataChanged;
 
     @Transactional
     void onStart(@Observes StartupEvent ev) {
-        initializeTopics();
-        initializeLanguages();
-        initializeDifficulties();
+        String checksum = checksum();
+        if (checksum.equals(seedRepository.findChecksum(SEED_NAME))) {
+            logger.info("Reference data seed is up to date, skipping");
+            return;
+        }
+
+        seedRepository.lockForTransaction(SEED_LOCK_KEY);
+        // Another instance may have seeded while we waited for the lock
+        if (checksum.equals(seedRepository.findChecksum(SEED_NAME))) {
+            logger.info("Reference data seeded by another instance, skipping");
+            return;
+        }
+
+        int inserted = initializeTopics() + initializeLanguages() + initializeDifficulties();
+        seedRepository.saveChecksum(SEED_NAME, checksum);
+        logger.info("Reference data seed applied: {} rows inserted", inserted);
+
+        if (inserted > 0) {
+            // Snapshot is rebuilt once this transaction commits
+            referenceDataChanged.fire(new ReferenceDataChanged("startup seed"));
+        }
     }
 
-    private void initializeTopics() {
-        List<TopicData> topicsData = Arrays.asList(
-            new TopicData("Fullstack", "Questions about developing applications involving both frontend and backend, using technologies like React, Angular, Vue.js, Node.js, Django, and more."),
-            new TopicData("Backend", "Questions about server-side development, including databases, APIs, frameworks like Spring Boot, Express.js, and languages like Java, Python, and PHP."),
-            new TopicData("Frontend", "Questions about user interface development, using technologies like HTML, CSS, JavaScript, React, Angular, and Vue.js."),
-            new TopicData("DevOps", "Questions about continuous integration and deployment, infrastructure management, tools like Docker, Kubernetes, Jenkins, and DevOps practices."),
-            new TopicData("Data Science", "Questions about data analysis, statistics, data visualization, using tools like Python, R, and data analysis platforms."),
-            new TopicData("Mobile", "Questions about mobile application development, using technologies like Android, iOS, Flutter, and React Native."),
-            new TopicData("Machine Learning", "Questions about machine learning algorithms, data modeling, using frameworks like TensorFlow, PyTorch, and Scikit-learn."),
-            new TopicData("Algorithms", "Questions about algorithm design and analysis, data structures, and competitive programming problems."),
-            new TopicData("System Design", "Questions about designing scalable systems, software architecture, distributed databases, and microservices design."),
-            new TopicData("Testing", "Questions about software testing, types of testing (unit, integration, acceptance), testing tools, and testing strategies."),
-            new TopicData("Cyber Security", "Questions about computer security, data protection, attack prevention, security tools, and security policies."),
-            new TopicData("Cloud Computing", "Questions about cloud computing, AWS, Azure, Google Cloud services, and cloud deployment practices."),
-            new TopicData("Blockchain", "Questions about blockchain technology, cryptocurrencies, smart contracts, and decentralized applications."),
-            new TopicData("IoT", "Questions about Internet of Things, connected devices, device communication, and IoT platforms."),
-            new TopicData("AR/VR", "Questions about augmented and virtual reality, AR/VR application development, and technologies like Unity and Unreal Engine."),
-            new TopicData("Quantum Computing", "Questions about quantum computing, quantum algorithms, and quantum computing applications."),
-            new TopicData("Game Development", "Questions about video game development, game engines like Unity and Unreal Engine, game design, and game programming.")
-        );
-
-        for (TopicData topicData : topicsData) {
-            if (topicRepository.findByName(topicData.name) == null) {
-                Topic topic = new Topic();
-                topic.setName(topicData.name);
-                topic.setDescription(topicData.description);
-                topic.setCreatedAt(Instant.now());
-                topic.setUpdatedAt(Instant.now());
-                topicRepository.persist(topic);
-                System.out.println("Created topic: " + topicData.name);
+    private int initializeTopics() {
+        Set<String> existing = seedRepository.findExisting("topics", "name",
+                TOPICS.stream().map(TopicData::name).toList());
+        List<Object[]> missing = new ArrayList<>();
+        for (TopicData topic : TOPICS) {
+            if (!existing.contains(topic.name())) {
+                missing.add(new Object[]{topic.name(), topic.description()});
             }
         }
+        int inserted = seedRepository.insertIgnoringConflicts("topics", "name",
+                List.of("name", "description"), missing,
+                "created_at, updated_at", "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP");
+        logger.debug("Topics: {} existing, {} inserted", existing.size(), inserted);
+        return inserted;
     }
 
-    private void initializeLanguages() {
-        List<String> languages = Arrays.asList(
-            "Java", "Python", "JavaScript", "Ruby", "C#", "PHP", 
-            "Go", "Rust", "Swift", "Kotlin", "TypeScript", "Scala"
-        );
-
-        for (String languageName : languages) {
-            if (languageRepository.findByName(languageName) == null) {
-                Language language = new Language();
-                language.setName(languageName);
-                language.setCreatedAt(Instant.now());
-                language.setUpdatedAt(Instant.now());
-                languageRepository.persist(language);
-                System.out.println("Created language: " + languageName);
+    private int initializeLanguages() {
+        Set<String> existing = seedRepository.findExisting("languages", "name", LANGUAGES);
+        List<Object[]> missing = new ArrayList<>();
+        for (String language : LANGUAGES) {
+            if (!existing.contains(language)) {
+                missing.add(new Object[]{language});
             }
         }
+        int inserted = seedRepository.insertIgnoringConflicts("languages", "name",
+                List.of("name"), missing,
+                "created_at, updated_at", "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP");
+        logger.debug("Languages: {} existing, {} inserted", existing.size(), inserted);
+        return inserted;
     }
 
-    private void initializeDifficulties() {
-        // First, clean up any existing difficulties to avoid duplicates
-        difficultyRepository.deleteAll();
-        System.out.println("Cleaned up existing difficulty data");
-        
-        List<DifficultyData> difficultiesData = Arrays.asList(
-            new DifficultyData(Difficulty.DifficultyLevel.Junior, "Basic and fundamental questions for beginner developers. Ideal for those starting in the field and needing to build a solid foundation."),
-            new DifficultyData(Difficulty.DifficultyLevel.MidLevel, "Intermediate questions requiring deeper knowledge of concepts and tools. Ideal for developers with experience in practical projects."),
-            new DifficultyData(Difficulty.DifficultyLevel.Senior, "Advanced and complex questions for field experts. Ideal for those with years of experience seeking more challenging technical problems.")
-        );
-
-        for (DifficultyData difficultyData : difficultiesData) {
-            // Convert enum to the expected frontend string format
-            String levelString = difficultyData.level == Difficulty.DifficultyLevel.MidLevel ? "Mid-Level" : difficultyData.level.name();
-            
-            Difficulty difficulty = new Difficulty();
-            difficulty.setLevel(difficultyData.level);
-            difficulty.setDescription(difficultyData.description);
-            difficultyRepository.persist(difficulty);
-            System.out.println("Created difficulty: " + levelString);
+    private int initializeDifficulties() {
+        Set<String> existing = seedRepository.findExisting("difficulties", "level",
+                DIFFICULTIES.stream().map(d -> d.level().name()).toList());
+        List<Object[]> missing = new ArrayList<>();
+        for (DifficultyData difficulty : DIFFICULTIES) {
+            if (!existing.contains(difficulty.level().name())) {
+                missing.add(new Object[]{difficulty.level().name(), difficulty.description()});
+            }
         }
+        int inserted = seedRepository.insertIgnoringConflicts("difficulties", "level",
+                List.of("level", "description"), missing, null, null);
+        logger.debug("Difficulties: {} existing, {} inserted", existing.size(), inserted);
+        return inserted;
     }
 
-    // Helper classes for data structure
-    private static class TopicData {
-        final String name;
-        final String description;
+    /**
+     * Digest of every seed definition. Changing any name, description or
+     * level changes the checksum and triggers a (still idempotent) re-seed.
+     */
+    static String checksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (TopicData topic : TOPICS) {
+                update(digest, "topic", topic.name(), topic.description());
+            }
+            for (String language : LANGUAGES) {
+                update(digest, "language", language);
+            }
+            for (DifficultyData difficulty : DIFFICULTIES) {
+                update(digest, "difficulty", difficulty.level().name(), difficulty.description());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        TopicData(String name, String description) {
-            this.name = name;
-            this.description = description;
+    private static void update(MessageDigest digest, String... parts) {
+        for (String part : parts) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
         }
+        digest.update((byte) '\n');
     }
 
-    private static class DifficultyData {
-        final Difficulty.DifficultyLevel level;
-        final String description;
+    // Helper records for seed definitions
+    record TopicData(String name, String description, List<String> technologies) {
+    }
 
-        DifficultyData(Difficulty.DifficultyLevel level, String description) {
-            this.level = level;
-            this.description = description;
-        }
+    record DifficultyData(Difficulty.DifficultyLevel level, String description) {
     }
-}
\ No newline at end of file
+}
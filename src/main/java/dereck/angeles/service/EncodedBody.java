@@ -0,0 +1,71 @@
+package dereck.angeles.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A JSON response body encoded once and reused for every request.
+ * <p>
+ * Holds the identity bytes, a gzip variant and a strong ETag per variant
+ * (the gzip tag carries a {@code -gz} suffix because the representations
+ * differ byte for byte).
+ */
+public record EncodedBody(byte[] identity, byte[] gzip, String etag, String gzipEtag) {
+
+	public static EncodedBody of(ObjectMapper objectMapper, Object value) {
+		byte[] json = serialize(objectMapper, value);
+		return of(json, digest(json));
+	}
+
+	/**
+	 * Uses a caller-supplied ETag, e.g. a version token that is also part
+	 * of the body.
+	 */
+	public static EncodedBody of(ObjectMapper objectMapper, Object value, String etag) {
+		return of(serialize(objectMapper, value), etag);
+	}
+
+	private static EncodedBody of(byte[] json, String etag) {
+		return new EncodedBody(json, gzip(json), etag, etag + "-gz");
+	}
+
+	private static byte[] serialize(ObjectMapper objectMapper, Object value) {
+		try {
+			return objectMapper.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize reference data", e);
+		}
+	}
+
+	private static byte[] gzip(byte[] data) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+		try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		}) {
+			gz.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	static String digest(byte[] data) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+			return HexFormat.of().formatHex(digest, 0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,392 @@
+package dereck.angeles.service;
+
+import dereck.angeles.config.DatabaseBulkhead;
+import dereck.angeles.dto.FeedbackDto;
+import dereck.angeles.dto.FeedbackStatusDto;
+import dereck.angeles.model.Difficulty;
+import dereck.angeles.model.Feedback;
+import dereck.angeles.model.FeedbackJob;
+import dereck.angeles.model.Interview;
+import dereck.angeles.repository.FeedbackJobRepository;
+import dereck.angeles.repository.FeedbackRepository;
+import dereck.angeles.repository.ScoreAggregateRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates {@link Feedback} for completed interviews in the background.
+ * <p>
+ * Completing an interview inserts a row in {@code feedback_jobs} in the same
+ * transaction. Every {@code app.feedback.poll-interval} this service claims
+ * as many due jobs as it has free worker slots ({@code workers} threads plus
+ * a {@code queue-capacity} backlog), so a slow scorer leaves jobs waiting in
+ * the table instead of piling up in memory. Workers load the interview,
+ * run the {@link FeedbackScorer} and hand the result to a batch writer that
+ * inserts feedback rows, updates the {@link ScoreAggregateService} totals and
+ * marks their jobs done in one transaction; {@link ScoreSketchService} picks
+ * the scores up once it commits.
+ * Failures are retried with exponential backoff up to {@code max-attempts};
+ * jobs stuck in {@code RUNNING} after a crash are requeued.
+ * <p>
+ * Clients poll {@link #status(UUID, UUID)} or register a {@link Listener};
+ * listeners are refreshed from the database on each tick, so they see
+ * progress made by any node.
+ */
+@ApplicationScoped
+public class FeedbackPipelineService {
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackPipelineService.class);
+
+    /**
+     * Receives status updates for one interview until the job is done or
+     * failed, after which {@link #close()} is called.
+     */
+    public interface Listener {
+        boolean isClosed();
+
+        void onStatus(FeedbackStatusDto status);
+
+        void close();
+    }
+
+    private record Completed(UUID interviewId, int attempt, FeedbackScorer.Result result) {
+    }
+
+    private static final class Subscription {
+        final Listener listener;
+        FeedbackStatusDto lastSent;
+
+        Subscription(Listener listener, FeedbackStatusDto lastSent) {
+            this.listener = listener;
+            this.lastSent = lastSent;
+        }
+    }
+
+    @Inject
+    FeedbackScorer scorer;
+
+    @Inject
+    FeedbackJobRepository feedbackJobRepository;
+
+    @Inject
+    FeedbackRepository feedbackRepository;
+
+    @Inject
+    ScoreAggregateRepository scoreAggregateRepository;
+
+    @Inject
+    ScoreAggregateService scoreAggregateService;
+
+    @Inject
+    ScoreSketchService scoreSketchService;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "app.feedback.workers", defaultValue = "4")
+    int workerCount;
+
+    @ConfigProperty(name = "app.feedback.queue-capacity", defaultValue = "64")
+    int queueCapacity;
+
+    @ConfigProperty(name = "app.feedback.batch-size", defaultValue = "50")
+    int batchSize;
+
+    @ConfigProperty(name = "app.feedback.max-attempts", defaultValue = "5")
+    int maxAttempts;
+
+    @ConfigProperty(name = "app.feedback.retry-base", defaultValue = "PT10S")
+    Duration retryBase;
+
+    @ConfigProperty(name = "app.feedback.retry-max", defaultValue = "PT10M")
+    Duration retryMax;
+
+    @ConfigProperty(name = "app.feedback.stale-after", defaultValue = "PT15M")
+    Duration staleAfter;
+
+    private ThreadPoolExecutor workers;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Completed> completed = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadIds = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread t = new Thread(r, "feedback-worker-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            persistCompleted();
+        } catch (RuntimeException e) {
+            // Unsaved jobs stay RUNNING and are requeued as stale on the next start
+            logger.warn("Could not persist pending feedback on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(every = "${app.feedback.poll-interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void tick() {
+        persistCompleted();
+        int free = workerCount + queueCapacity - inFlight.get();
+        if (free > 0) {
+            Map<UUID, Integer> claimed = QuarkusTransaction.requiringNew()
+                    .call(() -> feedbackJobRepository.claimDue(free));
+            claimed.forEach((interviewId, attempt) -> {
+                inFlight.incrementAndGet();
+                workers.execute(() -> run(interviewId, attempt));
+            });
+        }
+        notifyListeners();
+    }
+
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void requeueStale() {
+        int requeued = QuarkusTransaction.requiringNew()
+                .call(() -> feedbackJobRepository.requeueStale(Instant.now().minus(staleAfter)));
+        if (requeued > 0) {
+            logger.warn("Requeued {} stale feedback jobs", requeued);
+        }
+    }
+
+    /**
+     * Current job status for the user's interview, or {@code null} if the
+     * interview has no job or belongs to someone else.
+     */
+    @DatabaseBulkhead
+    public FeedbackStatusDto status(UUID interviewId, UUID userId) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            FeedbackJobRepository.JobStatus job =
+                    feedbackJobRepository.findStatuses(List.of(interviewId)).get(interviewId);
+            if (job == null || !userId.equals(job.userId())) {
+                return null;
+            }
+            return toStatus(interviewId, job);
+        });
+    }
+
+    /**
+     * Sends the current status to {@code listener} and keeps it updated.
+     *
+     * @throws IllegalArgumentException if the user's interview has no job
+     */
+    public void subscribe(UUID interviewId, UUID userId, Listener listener) {
+        FeedbackStatusDto current = status(interviewId, userId);
+        if (current == null) {
+            throw new IllegalArgumentException("Feedback not found");
+        }
+        listener.onStatus(current);
+        if (isFinal(current.status())) {
+            listener.close();
+            return;
+        }
+        subscriptions.computeIfAbsent(interviewId, id -> new CopyOnWriteArrayList<>())
+                .add(new Subscription(listener, current));
+    }
+
+    private void run(UUID interviewId, int attempt) {
+        try {
+            FeedbackScorer.Input input = QuarkusTransaction.requiringNew().call(() -> loadInput(interviewId));
+            FeedbackScorer.Result result = scorer.score(input);
+            completed.add(new Completed(interviewId, attempt, result));
+            if (completed.size() >= batchSize) {
+                persistCompleted();
+            }
+        } catch (Exception e) {
+            fail(interviewId, attempt, e);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private FeedbackScorer.Input loadInput(UUID interviewId) {
+        Object[] context = feedbackRepository.findScoringContext(interviewId);
+        if (context == null) {
+            throw new IllegalStateException("Interview no longer exists");
+        }
+        List<FeedbackScorer.AnsweredQuestion> questions = new ArrayList<>();
+        for (Object[] row : feedbackRepository.findAnsweredQuestions(interviewId)) {
+            questions.add(new FeedbackScorer.AnsweredQuestion((String) row[0], (String) row[1], (String) row[2]));
+        }
+        return new FeedbackScorer.Input(interviewId, (String) context[0], (String) context[1],
+                (Difficulty.DifficultyLevel) context[2], (Integer) context[3], questions);
+    }
+
+    /**
+     * Writes all finished results in one transaction; if the batch fails the
+     * rows are retried one by one so a single bad row can't block the rest.
+     */
+    private synchronized void persistCompleted() {
+        List<Completed> batch = new ArrayList<>();
+        Completed next;
+        while ((next = completed.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            QuarkusTransaction.requiringNew().run(() -> insertFeedback(batch));
+        } catch (RuntimeException e) {
+            logger.warn("Feedback batch of {} failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (Completed row : batch) {
+                try {
+                    QuarkusTransaction.requiringNew().run(() -> insertFeedback(List.of(row)));
+                } catch (RuntimeException rowError) {
+                    fail(row.interviewId(), row.attempt(), rowError);
+                }
+            }
+        }
+    }
+
+    private void insertFeedback(List<Completed> batch) {
+        List<UUID> ids = batch.stream().map(Completed::interviewId).toList();
+        Set<UUID> replaced = Set.copyOf(feedbackRepository.findInterviewIdsWithFeedback(ids));
+        List<ScoreAggregateRepository.Contribution> previous = scoreAggregateRepository.findContributions(replaced);
+        feedbackRepository.deleteByInterviewIds(ids);
+        Instant now = Instant.now();
+        for (Completed row : batch) {
+            FeedbackScorer.Result result = row.result();
+            Feedback feedback = new Feedback();
+            feedback.setInterview(entityManager.getReference(Interview.class, row.interviewId()));
+            feedback.setTechnicalScore(clamp(result.technicalScore()));
+            feedback.setNonTechnicalScore(clamp(result.nonTechnicalScore()));
+            feedback.setGeneralComments(result.generalComments());
+            feedback.setImprovementTips(result.improvementTips());
+            feedback.setWouldHire(result.wouldHire());
+            feedback.setCreatedAt(now);
+            feedbackRepository.persist(feedback);
+        }
+        entityManager.flush();
+        List<ScoreAggregateRepository.Contribution> current = scoreAggregateRepository.findContributions(ids);
+        scoreAggregateService.applyFeedback(current, replaced);
+        scoreSketchService.applyFeedback(previous, current);
+        feedbackJobRepository.markDone(ids);
+    }
+
+    private void fail(UUID interviewId, int attempt, Exception error) {
+        String message = error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage();
+        try {
+            if (attempt >= maxAttempts) {
+                logger.error("Feedback for interview {} failed after {} attempts: {}", interviewId, attempt, message);
+                QuarkusTransaction.requiringNew().run(() -> feedbackJobRepository.markFailed(interviewId, message));
+            } else {
+                long backoff = Math.min(retryMax.toMillis(), retryBase.toMillis() << Math.min(attempt - 1, 20));
+                logger.warn("Feedback for interview {} failed (attempt {}), retrying in {} ms: {}",
+                        interviewId, attempt, backoff, message);
+                QuarkusTransaction.requiringNew().run(() -> feedbackJobRepository.markRetry(
+                        interviewId, Instant.now().plusMillis(backoff), message));
+            }
+        } catch (RuntimeException e) {
+            // The job stays RUNNING and is picked up again by requeueStale
+            logger.error("Could not record feedback failure for interview {}", interviewId, e);
+        }
+    }
+
+    private static void closeQuietly(Listener listener) {
+        try {
+            listener.close();
+        } catch (RuntimeException e) {
+            logger.debug("Could not close feedback listener: {}", e.getMessage());
+        }
+    }
+
+    private void notifyListeners() {
+        subscriptions.values().forEach(list -> list.removeIf(s -> s.listener.isClosed()));
+        subscriptions.values().removeIf(List::isEmpty);
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Set<UUID> ids = Set.copyOf(subscriptions.keySet());
+        // Listeners write to clients, so they are called after the read has committed
+        Map<UUID, FeedbackStatusDto> statuses = QuarkusTransaction.requiringNew().call(() -> {
+            Map<UUID, FeedbackStatusDto> result = new HashMap<>();
+            feedbackJobRepository.findStatuses(ids)
+                    .forEach((interviewId, job) -> result.put(interviewId, toStatus(interviewId, job)));
+            return result;
+        });
+        for (UUID interviewId : ids) {
+            FeedbackStatusDto status = statuses.get(interviewId);
+            List<Subscription> listeners = subscriptions.get(interviewId);
+            if (status == null || listeners == null) {
+                continue;
+            }
+            for (Subscription subscription : listeners) {
+                try {
+                    if (!status.equals(subscription.lastSent)) {
+                        subscription.lastSent = status;
+                        subscription.listener.onStatus(status);
+                    }
+                    if (isFinal(status.status())) {
+                        subscription.listener.close();
+                    }
+                } catch (RuntimeException e) {
+                    // A broken client must not stop updates to the others
+                    logger.warn("Dropping feedback listener for interview {}: {}", interviewId, e.getMessage());
+                    listeners.remove(subscription);
+                    closeQuietly(subscription.listener);
+                }
+            }
+            if (isFinal(status.status())) {
+                subscriptions.remove(interviewId);
+            }
+        }
+    }
+
+    private FeedbackStatusDto toStatus(UUID interviewId, FeedbackJobRepository.JobStatus job) {
+        FeedbackDto feedback = null;
+        if (FeedbackJob.Status.DONE.name().equals(job.status())) {
+            Feedback entity = feedbackRepository.findByInterviewId(interviewId);
+            if (entity != null) {
+                feedback = new FeedbackDto(entity.getId(), interviewId, entity.getTechnicalScore(),
+                        entity.getNonTechnicalScore(), entity.getGeneralComments(),
+                        entity.getImprovementTips(), entity.getWouldHire(), entity.getCreatedAt());
+            }
+        }
+        return new FeedbackStatusDto(job.status(), job.attempts(), job.lastError(), feedback);
+    }
+
+    private static boolean isFinal(String status) {
+        return FeedbackJob.Status.DONE.name().equals(status) || FeedbackJob.Status.FAILED.name().equals(status);
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(100, score));
+    }
+}
@@ -0,0 +1,33 @@
+package dereck.angeles.service;
+
+import dereck.angeles.model.Difficulty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Produces interview feedback from the asked questions and the user's
+ * answers. Implementations may be slow (e.g. a remote model) and may throw;
+ * {@link FeedbackPipelineService} runs them off request threads and retries
+ * failures. Provide a CDI bean of this type to replace
+ * {@link StubFeedbackScorer}.
+ */
+public interface FeedbackScorer {
+
+    Result score(Input input) throws Exception;
+
+    record AnsweredQuestion(String questionText, String sampleAnswer, String userAnswer) {
+    }
+
+    record Input(UUID interviewId, String topic, String language, Difficulty.DifficultyLevel level,
+                 Integer experienceYears, List<AnsweredQuestion> questions) {
+    }
+
+    /**
+     * Scores are in {@code [0, 100]}.
+     */
+    record Result(int technicalScore, int nonTechnicalScore, String generalComments,
+                  Map<String, Object> improvementTips, boolean wouldHire) {
+    }
+}
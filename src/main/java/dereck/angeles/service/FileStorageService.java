@@ -125,7 +125,7 @@ public class FileStorageService {
     /**
      * Enterprise method: Select appropriate bucket based on file type
      */
-    private String getBucketForFileType(File.FileType fileType) {
+    String getBucketForFileType(File.FileType fileType) {
         return switch (fileType) {
             case RESUME -> userResumesBucket;
             case INTERVIEW_RECORDING -> interviewRecordingsBucket;
@@ -139,7 +139,7 @@ public class FileStorageService {
     /**
      * Enterprise method: Generate hierarchical object key with user prefix
      */
-    private String generateEnterpriseObjectKey(File.FileType fileType, String userId, String filename) {
+    String generateEnterpriseObjectKey(File.FileType fileType, String userId, String filename) {
         String timestamp = java.time.Instant.now().toString().replaceAll("[:.]", "-");
         
         return switch (fileType) {
@@ -330,7 +330,7 @@ public class FileStorageService {
         return uniqueId + extension;
     }
 
-    private String generateDownloadUrl(String fileId) {
+    String generateDownloadUrl(String fileId) {
         return "/api/files/" + fileId + "/download";
     }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+package dereck.angeles.service;
+
+import dereck.angeles.config.DatabasePermits;
+import dereck.angeles.repository.IdempotencyKeyRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key}.
+ * <p>
+ * Successful responses are kept for {@code app.idempotency.ttl} in
+ * {@code idempotency_keys} and in a bounded LRU cache, and replayed to
+ * retries. A duplicate arriving while the first request is still running
+ * waits for it: on the same node it joins the running execution, on another
+ * node it polls the claimed row. Failed requests release their claim, so the
+ * client can retry with the same key. Keys are scoped per user and endpoint,
+ * and bound to a hash of the request: reusing a key for a different payload
+ * fails with {@link KeyReusedException} instead of replaying a response that
+ * belongs to another request.
+ */
+@ApplicationScoped
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final long POLL_MILLIS = 200;
+
+    /**
+     * A response to return; {@code replayed} is set when it was produced by
+     * an earlier request with the same key.
+     */
+    public record IdempotentResponse(int status, String body, boolean replayed) {
+        IdempotentResponse asReplay() {
+            return new IdempotentResponse(status, body, true);
+        }
+    }
+
+    /**
+     * The key was already used for a request with a different payload.
+     */
+    public static class KeyReusedException extends RuntimeException {
+        public KeyReusedException() {
+            super("Idempotency-Key was already used with a different request payload");
+        }
+    }
+
+    private record Cached(String requestHash, int status, String body, Instant expiresAt) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<IdempotentResponse> result) {
+    }
+
+    @Inject
+    IdempotencyKeyRepository idempotencyKeyRepository;
+
+    // Taken around each query only; the request itself runs without a permit
+    @Inject
+    DatabasePermits databasePermits;
+
+    @ConfigProperty(name = "app.idempotency.ttl", defaultValue = "PT24H")
+    Duration ttl;
+
+    @ConfigProperty(name = "app.idempotency.cache-size", defaultValue = "10000")
+    int cacheSize;
+
+    @ConfigProperty(name = "app.idempotency.lease", defaultValue = "PT5M")
+    Duration lease;
+
+    @ConfigProperty(name = "app.idempotency.wait-timeout", defaultValue = "PT30S")
+    Duration waitTimeout;
+
+    private Map<String, Cached> cache;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Returns the stored response for the key, or runs {@code action} and
+     * stores its response if it is a 2xx.
+     *
+     * @param requestHash hash of the request payload, e.g. from
+     *                    {@link #hashRequest(byte[]...)}
+     * @throws KeyReusedException    if the key was used with a different
+     *                               {@code requestHash}
+     * @throws IllegalStateException if an earlier request with the same key
+     *                               is still running after
+     *                               {@code app.idempotency.wait-timeout}
+     */
+    public IdempotentResponse execute(String scope, UUID userId, String key, String requestHash,
+                                      Supplier<IdempotentResponse> action) {
+        String id = scope + ":" + userId + ":" + key;
+        Cached cached = cache.get(id);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            if (!cached.requestHash().equals(requestHash)) {
+                throw new KeyReusedException();
+            }
+            return new IdempotentResponse(cached.status(), cached.body(), true);
+        }
+
+        CompletableFuture<IdempotentResponse> mine = new CompletableFuture<>();
+        InFlight claim = new InFlight(requestHash, mine);
+        InFlight running = inFlight.putIfAbsent(id, claim);
+        if (running != null) {
+            if (!running.requestHash().equals(requestHash)) {
+                throw new KeyReusedException();
+            }
+            try {
+                return running.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                // The first request failed or got a non-2xx and released the key; run this one
+                return execute(scope, userId, key, requestHash, action);
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("A request with this Idempotency-Key is still in progress");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a request with the same key");
+            }
+        }
+
+        IdempotentResponse response;
+        try {
+            response = executeClaimed(id, userId, requestHash, action);
+        } catch (RuntimeException e) {
+            inFlight.remove(id, claim);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(id, claim);
+        if (isSuccess(response.status())) {
+            mine.complete(response.asReplay());
+        } else {
+            // Not stored, so waiters must run their own request rather than share this one
+            mine.completeExceptionally(new IllegalStateException("Response was not stored: " + response.status()));
+        }
+        return response;
+    }
+
+    /**
+     * SHA-256 over the given parts, hex encoded. Each part is prefixed with
+     * its length, so moving bytes between parts changes the hash.
+     */
+    public static String hashRequest(byte[]... parts) {
+        MessageDigest digest = sha256();
+        for (byte[] part : parts) {
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(part.length).array());
+            digest.update(part);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isSuccess(int status) {
+        return status >= 200 && status < 300;
+    }
+
+    private IdempotentResponse executeClaimed(String id, UUID userId, String requestHash,
+                                              Supplier<IdempotentResponse> action) {
+        long deadline = System.currentTimeMillis() + waitTimeout.toMillis();
+        while (true) {
+            Instant now = Instant.now();
+            if (databasePermits.call(() -> QuarkusTransaction.requiringNew().call(
+                    () -> idempotencyKeyRepository.claim(id, userId, requestHash, now, now.plus(lease))))) {
+                break;
+            }
+            IdempotencyKeyRepository.Stored stored = databasePermits.call(() -> QuarkusTransaction.requiringNew()
+                    .call(() -> idempotencyKeyRepository.find(id, Instant.now())));
+            if (stored != null && stored.requestHash() != null && !stored.requestHash().equals(requestHash)) {
+                throw new KeyReusedException();
+            }
+            if (stored != null && stored.statusCode() != null) {
+                cache.put(id, new Cached(requestHash, stored.statusCode(), stored.responseBody(),
+                        stored.expiresAt()));
+                return new IdempotentResponse(stored.statusCode(), stored.responseBody(), true);
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("A request with this Idempotency-Key is still in progress");
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a request with the same key");
+            }
+        }
+
+        IdempotentResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(id);
+            throw e;
+        }
+        if (!isSuccess(response.status())) {
+            release(id);
+            return response;
+        }
+        Instant expiresAt = Instant.now().plus(ttl);
+        try {
+            databasePermits.run(() -> QuarkusTransaction.requiringNew().run(
+                    () -> idempotencyKeyRepository.complete(id, response.status(), response.body(), expiresAt)));
+            cache.put(id, new Cached(requestHash, response.status(), response.body(), expiresAt));
+        } catch (RuntimeException e) {
+            // The request itself succeeded; a later retry may run it again once the lease expires
+            logger.warn("Could not store response for idempotency key {}: {}", id, e.getMessage());
+        }
+        return response;
+    }
+
+    private void release(String id) {
+        try {
+            databasePermits.run(
+                    () -> QuarkusTransaction.requiringNew().run(() -> idempotencyKeyRepository.release(id)));
+        } catch (RuntimeException e) {
+            // The claim expires after app.idempotency.lease
+            logger.warn("Could not release idempotency key {}: {}", id, e.getMessage());
+        }
+    }
+
+    @Scheduled(every = "${app.idempotency.purge-interval:10m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purgeExpired() {
+        int purged = QuarkusTransaction.requiringNew()
+                .call(() -> idempotencyKeyRepository.deleteExpired(Instant.now()));
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+}
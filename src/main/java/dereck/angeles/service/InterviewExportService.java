@@ -0,0 +1,207 @@
+package dereck.angeles.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Streams every interview joined with its feedback as NDJSON or CSV.
+ * <p>
+ * Rows are read through a {@link StatelessSession} with a forward-only
+ * {@link ScrollableResults} and a JDBC fetch size, so nothing is kept in a
+ * persistence context and the Postgres driver uses a server-side cursor.
+ * Each row is written to the response as soon as it is read; memory stays
+ * constant regardless of the number of interviews.
+ */
+@ApplicationScoped
+public class InterviewExportService {
+    private static final Logger logger = LoggerFactory.getLogger(InterviewExportService.class);
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    static final String[] COLUMNS = {
+            "interview_id", "user_id", "user_email", "topic", "language", "difficulty",
+            "status", "start_time", "end_time", "experience_years",
+            "technical_score", "non_technical_score", "would_hire", "feedback_created_at"
+    };
+
+    private static final String EXPORT_QUERY = """
+            SELECT i.id, u.id, u.email, t.name, l.name, d.level,
+                   i.status, i.startTime, i.endTime, i.experienceYears,
+                   f.technicalScore, f.nonTechnicalScore, f.wouldHire, f.createdAt
+            FROM Interview i
+            LEFT JOIN i.user u
+            LEFT JOIN i.topic t
+            LEFT JOIN i.language l
+            LEFT JOIN i.difficulty d
+            LEFT JOIN Feedback f ON f.interview = i
+            """;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "app.export.fetch-size", defaultValue = "1000")
+    int fetchSize;
+
+    @ConfigProperty(name = "app.export.flush-every", defaultValue = "500")
+    int flushEvery;
+
+    @ConfigProperty(name = "app.export.transaction-timeout", defaultValue = "3600")
+    int transactionTimeoutSeconds;
+
+    /**
+     * Writes the export to {@code out}. Interviews started before
+     * {@code since} are skipped when it is not {@code null}.
+     */
+    public void export(OutputStream out, Format format, Instant since) {
+        long started = System.currentTimeMillis();
+        // A transaction turns off autocommit, which the Postgres driver needs
+        // before it honours the fetch size instead of buffering every row.
+        long rows = QuarkusTransaction.requiringNew()
+                .timeout(transactionTimeoutSeconds)
+                .call(() -> {
+                    try (StatelessSession session = sessionFactory.openStatelessSession()) {
+                        String hql = since == null ? EXPORT_QUERY : EXPORT_QUERY + " WHERE i.startTime >= :since";
+                        SelectionQuery<Object[]> query = session.createSelectionQuery(hql, Object[].class)
+                                .setFetchSize(fetchSize)
+                                .setReadOnly(true);
+                        if (since != null) {
+                            query.setParameter("since", since);
+                        }
+                        try (ScrollableResults<Object[]> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                            return format == Format.CSV ? writeCsv(results, out) : writeNdjson(results, out);
+                        }
+                    }
+                });
+        logger.info("Exported {} interviews as {} in {} ms", rows, format,
+                System.currentTimeMillis() - started);
+    }
+
+    private long writeNdjson(ScrollableResults<Object[]> results, OutputStream out) {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(nonClosing(out))) {
+            // One object per line: Jackson writes the separator between root values
+            json.setRootValueSeparator(new SerializedString("\n"));
+            long count = 0;
+            while (results.next()) {
+                Object[] row = results.get();
+                json.writeStartObject();
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    json.writeFieldName(COLUMNS[c]);
+                    writeJsonValue(json, row[c]);
+                }
+                json.writeEndObject();
+                if (++count % flushEvery == 0) {
+                    json.flush();
+                }
+            }
+            if (count > 0) {
+                json.writeRaw('\n');
+            }
+            json.flush();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long writeCsv(ScrollableResults<Object[]> results, OutputStream out) {
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(nonClosing(out), StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            long count = 0;
+            while (results.next()) {
+                Object[] row = results.get();
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    if (c > 0) {
+                        writer.write(',');
+                    }
+                    writeCsvValue(writer, row[c]);
+                }
+                writer.write('\n');
+                if (++count % flushEvery == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeJsonValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Number number) {
+            json.writeNumber(number.toString());
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+
+    private static void writeCsvValue(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char ch = text.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * The HTTP layer owns the response stream; closing our writers must only
+     * flush it.
+     */
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+}
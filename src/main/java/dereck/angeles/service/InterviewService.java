@@ -1,71 +1,271 @@
 package dereck.angeles.service;
 
+import dereck.angeles.config.DatabaseBulkhead;
+import dereck.angeles.dto.DifficultyDto;
 import dereck.angeles.dto.InterviewDto;
+import dereck.angeles.dto.InterviewHistoryItemDto;
+import dereck.angeles.dto.InterviewHistoryPageDto;
+import dereck.angeles.dto.QuestionDto;
 import dereck.angeles.model.*;
 import dereck.angeles.repository.*;
+import dereck.angeles.util.CompressedBitmap;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @ApplicationScoped
 public class InterviewService {
 
+    static final int MAX_HISTORY_PAGE_SIZE = 100;
+    static final int MAX_QUESTIONS_PER_REQUEST = 20;
+
+    static final int MAX_TRANSITION_ATTEMPTS = 5;
+
+    public static final String STATUS_IN_PROGRESS = Interview.Status.IN_PROGRESS.value();
+    public static final String STATUS_COMPLETED = Interview.Status.COMPLETED.value();
+
     @Inject
     InterviewRepository interviewRepository;
 
     @Inject
-    UserRepository userRepository;
+    ReferenceDataRegistry referenceDataRegistry;
+
+    @Inject
+    QuestionRepository questionRepository;
 
     @Inject
-    TopicRepository topicRepository;
+    QuestionBankIndex questionBankIndex;
 
     @Inject
-    LanguageRepository languageRepository;
+    QuestionRelevanceIndex questionRelevanceIndex;
 
     @Inject
-    DifficultyRepository difficultyRepository;
+    SeenQuestionService seenQuestionService;
 
+    @Inject
+    FeedbackJobRepository feedbackJobRepository;
+
+    @Inject
+    SkillExtractionService skillExtractionService;
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Creates an interview with a single INSERT.
+     * <p>
+     * Topic, language and difficulty are validated against the in-memory
+     * reference data snapshot, and every foreign key is assigned through
+     * {@link EntityManager#getReference}, so no SELECT is issued. The caller
+     * is responsible for {@code userId} coming from the authenticated
+     * principal.
+     */
+    @DatabaseBulkhead
     @Transactional
     public Interview createInterview(InterviewDto interviewDto) {
-        // Get referenced entities
-        User user = userRepository.findById(UUID.fromString(interviewDto.userId()));
-        if (user == null) {
-            throw new RuntimeException("User not found");
-        }
+        ReferenceDataSnapshot referenceData = referenceDataRegistry.snapshot();
+
+        UUID userId = UUID.fromString(interviewDto.userId());
 
-        Topic topic = topicRepository.findById(UUID.fromString(interviewDto.topicId()));
-        if (topic == null) {
+        UUID topicId = UUID.fromString(interviewDto.topicId());
+        if (!referenceData.topicsById().containsKey(topicId)) {
             throw new RuntimeException("Topic not found: " + interviewDto.topicId());
         }
 
-        Language language = languageRepository.findById(UUID.fromString(interviewDto.languageId()));
-        if (language == null) {
+        UUID languageId = UUID.fromString(interviewDto.languageId());
+        if (!referenceData.languagesById().containsKey(languageId)) {
             throw new RuntimeException("Language not found: " + interviewDto.languageId());
         }
 
-        Difficulty difficulty = difficultyRepository.findByLevel(interviewDto.difficultyLevel());
+        Difficulty.DifficultyLevel level = Difficulty.DifficultyLevel.fromLabel(interviewDto.difficultyLevel());
+        DifficultyDto difficulty = level == null ? null : referenceData.difficultiesByLevel().get(level);
         if (difficulty == null) {
             throw new RuntimeException("Difficulty not found: " + interviewDto.difficultyLevel());
         }
 
         // Create interview entity
         Interview interview = new Interview();
-        interview.setUser(user);
-        interview.setTopic(topic);
-        interview.setLanguage(language);
-        interview.setDifficulty(difficulty);
+        interview.setUser(entityManager.getReference(User.class, userId));
+        interview.setTopic(entityManager.getReference(Topic.class, topicId));
+        interview.setLanguage(entityManager.getReference(Language.class, languageId));
+        interview.setDifficulty(entityManager.getReference(Difficulty.class, difficulty.id()));
         interview.setJobDescription(interviewDto.jobDescription());
+        interview.setSkills(skillExtractionService.extract(interviewDto.jobDescription()));
         interview.setExperienceYears(interviewDto.experienceYears());
         interview.setStartTime(Instant.now());
-        interview.setStatus("in_progress");
+        interview.setStatus(STATUS_IN_PROGRESS);
 
         interviewRepository.persist(interview);
         return interview;
     }
 
+    /**
+     * Returns one page of the user's interview history, newest first. The
+     * cursor is opaque to clients: it encodes the {@code (start_time, id)} of
+     * the last item of the previous page.
+     */
+    @DatabaseBulkhead
+    public InterviewHistoryPageDto getHistory(UUID userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        Instant cursorStart = null;
+        UUID cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String decoded;
+            try {
+                decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf('|');
+                cursorStart = Instant.parse(decoded.substring(0, separator));
+                cursorId = UUID.fromString(decoded.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<InterviewHistoryItemDto> rows =
+                interviewRepository.findHistoryPage(userId, cursorStart, cursorId, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new InterviewHistoryPageDto(rows, null);
+        }
+        List<InterviewHistoryItemDto> page = rows.subList(0, pageSize);
+        InterviewHistoryItemDto last = page.get(pageSize - 1);
+        String nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.startTime() + "|" + last.id()).getBytes(StandardCharsets.UTF_8));
+        return new InterviewHistoryPageDto(List.copyOf(page), nextCursor);
+    }
+
+    /**
+     * Picks up to {@code count} questions matching the interview's topic,
+     * language and difficulty that the user has not been asked before, and
+     * records them as asked. Candidates come from {@link QuestionBankIndex}
+     * and are filtered against the user's seen-question bitmap in memory.
+     */
+    @Transactional
+    public List<QuestionDto> assignQuestions(UUID interviewId, UUID userId, int count) {
+        return assignQuestions(interviewId, userId, count, false);
+    }
+
+    /**
+     * Like {@link #assignQuestions(UUID, UUID, int)}; with {@code relevant}
+     * the questions most similar to the interview's job description come
+     * first, ranked by {@link QuestionRelevanceIndex}, and random picks only
+     * fill up what the ranking leaves short.
+     */
+    @DatabaseBulkhead
+    @Transactional
+    public List<QuestionDto> assignQuestions(UUID interviewId, UUID userId, int count, boolean relevant) {
+        Object[] setup = interviewRepository.findOwnerAndBucket(interviewId);
+        if (setup == null || !userId.equals(setup[0])) {
+            throw new IllegalArgumentException("Interview not found");
+        }
+        QuestionBankIndex.BucketKey key = new QuestionBankIndex.BucketKey(
+                (UUID) setup[1], (UUID) setup[2], (Difficulty.DifficultyLevel) setup[3]);
+        int limit = Math.max(1, Math.min(count, MAX_QUESTIONS_PER_REQUEST));
+
+        CompressedBitmap seen = seenQuestionService.seenBy(userId);
+        List<UUID> picked = new ArrayList<>(limit);
+        if (relevant) {
+            String jobDescription = interviewRepository.findJobDescription(interviewId);
+            for (QuestionRelevanceIndex.Match match : questionRelevanceIndex.topK(jobDescription, limit,
+                    ordinal -> questionBankIndex.inBucket(key, ordinal) && !seen.contains(ordinal))) {
+                picked.add(match.id());
+            }
+        }
+        if (picked.size() < limit) {
+            Set<UUID> ranked = new HashSet<>(picked);
+            for (UUID id : questionBankIndex.sample(key, limit,
+                    ordinal -> seen.contains(ordinal) || ranked.contains(questionBankIndex.idOf(ordinal)))) {
+                if (picked.size() < limit) {
+                    picked.add(id);
+                }
+            }
+        }
+        List<Question> questions = new ArrayList<>(questionRepository.findByIds(picked));
+        questions.sort(Comparator.comparingInt(question -> picked.indexOf(question.getId())));
+
+        Interview interview = entityManager.getReference(Interview.class, interviewId);
+        Instant now = Instant.now();
+        List<QuestionDto> result = new ArrayList<>(questions.size());
+        int[] ordinals = new int[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            InterviewQuestion interviewQuestion = new InterviewQuestion();
+            interviewQuestion.setInterview(interview);
+            interviewQuestion.setQuestion(question);
+            interviewQuestion.setAskedAt(now);
+            entityManager.persist(interviewQuestion);
+            ordinals[i] = question.getOrdinal();
+            result.add(new QuestionDto(question.getId(), question.getQuestionText(), question.getSampleAnswer(),
+                    question.getCreatedAt(), question.getUpdatedAt()));
+        }
+        seenQuestionService.recordSeen(userId, ordinals);
+        return result;
+    }
+
+    /**
+     * Marks the user's interview as completed, sets its end time and queues
+     * feedback generation.
+     *
+     * @return the resulting status
+     */
+    @Transactional
+    public String completeInterview(UUID interviewId, UUID userId) {
+        if (transition(interviewId, userId, Interview.Status.COMPLETED)) {
+            // Scored in the background by FeedbackPipelineService
+            feedbackJobRepository.enqueue(interviewId);
+        }
+        return STATUS_COMPLETED;
+    }
+
+    /**
+     * Moves the user's interview to {@code target} with a conditional
+     * {@code UPDATE ... WHERE version = ?} instead of a row lock, re-reading
+     * and retrying when another writer got there first. Moving to
+     * {@link Interview.Status#COMPLETED} also sets {@code endTime}, which
+     * fills the generated {@code duration} column.
+     *
+     * @return {@code true} if this call changed the status, {@code false} if
+     * the interview already was in {@code target}
+     * @throws IllegalArgumentException if the interview does not exist or
+     *                                  belongs to another user
+     * @throws IllegalStateException    if the transition is not allowed or
+     *                                  kept losing to concurrent updates
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public boolean transition(UUID interviewId, UUID userId, Interview.Status target) {
+        for (int attempt = 1; attempt <= MAX_TRANSITION_ATTEMPTS; attempt++) {
+            Object[] state = interviewRepository.findState(interviewId);
+            if (state == null || !userId.equals(state[0])) {
+                throw new IllegalArgumentException("Interview not found");
+            }
+            Interview.Status current = state[1] == null
+                    ? Interview.Status.IN_PROGRESS : Interview.Status.fromValue((String) state[1]);
+            if (current == target) {
+                return false;
+            }
+            if (!current.canTransitionTo(target)) {
+                throw new IllegalStateException("Cannot change interview from " + current.value()
+                        + " to " + target.value());
+            }
+            Instant endTime = target == Interview.Status.COMPLETED ? Instant.now() : null;
+            if (interviewRepository.updateStatus(interviewId, (Long) state[2], target.value(), endTime)) {
+                return true;
+            }
+        }
+        throw new IllegalStateException("Interview was modified concurrently, try again");
+    }
+
     public Interview findById(UUID id) {
         return interviewRepository.findById(id);
     }
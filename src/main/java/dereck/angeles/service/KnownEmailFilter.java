@@ -0,0 +1,103 @@
+package dereck.angeles.service;
+
+import dereck.angeles.repository.UserRepository;
+import dereck.angeles.util.BloomFilter;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * In-memory negative-lookup filter for registered emails.
+ * <p>
+ * Registration asks this filter first: a "definitely absent" answer skips the
+ * database probe entirely, a "possibly present" answer falls back to
+ * {@link UserRepository#existsByEmail(String)}. The filter is rebuilt at
+ * startup with a streaming scan of {@code users.email} and grows with each
+ * successful registration. Until the first build finishes every lookup is
+ * reported as "possibly present". The unique {@code lower(email)} index stays
+ * the source of truth, so a stale filter can only cost an extra query or a
+ * constraint violation, never a duplicate account.
+ */
+@ApplicationScoped
+public class KnownEmailFilter {
+	private static final Logger logger = LoggerFactory.getLogger(KnownEmailFilter.class);
+
+	@Inject
+	UserRepository userRepository;
+
+	@ConfigProperty(name = "app.auth.email-filter.false-positive-rate", defaultValue = "0.01")
+	double falsePositiveRate;
+
+	@ConfigProperty(name = "app.auth.email-filter.min-capacity", defaultValue = "100000")
+	long minCapacity;
+
+	@ConfigProperty(name = "app.auth.email-filter.fetch-size", defaultValue = "1000")
+	int fetchSize;
+
+	private volatile BloomFilter filter;
+
+	@Transactional
+	void onStart(@Observes StartupEvent ev) {
+		ensureIndex();
+		rebuild();
+	}
+
+	/**
+	 * The index comes from migration V1.0.2, but Flyway is optional and
+	 * Hibernate can't create functional indexes, so create it here as well.
+	 * Duplicates that differ only by case must be merged by hand first.
+	 */
+	private void ensureIndex() {
+		List<String> collisions = userRepository.findEmailCaseCollisions();
+		if (!collisions.isEmpty()) {
+			logger.error("Not creating users_email_lower_key: {} emails are shared by several accounts "
+									 + "when case is ignored, e.g. {}", collisions.size(),
+									 collisions.subList(0, Math.min(10, collisions.size())));
+			return;
+		}
+		userRepository.ensureEmailLowerIndex();
+	}
+
+	/**
+	 * Rebuilds the filter from the users table and swaps it in atomically.
+	 * Capacity is twice the current user count so signup spikes don't push
+	 * the false-positive rate up before the next restart.
+	 */
+	@Transactional
+	public void rebuild() {
+		long users = userRepository.count();
+		BloomFilter next = BloomFilter.create(Math.max(minCapacity, users * 2), falsePositiveRate);
+		long loaded = 0;
+		try (Stream<String> emails = userRepository.streamEmails(fetchSize)) {
+			Iterator<String> it = emails.iterator();
+			while (it.hasNext()) {
+				next.put(UserRepository.normalizeEmail(it.next()));
+				loaded++;
+			}
+		}
+		filter = next;
+		logger.info("Email filter rebuilt with {} emails ({} bits, {} hashes)",
+								loaded, next.bitSize(), next.hashCount());
+	}
+
+	public boolean mightContain(String email) {
+		BloomFilter current = filter;
+		return current == null || current.mightContain(UserRepository.normalizeEmail(email));
+	}
+
+	public void add(String email) {
+		BloomFilter current = filter;
+		if (current != null) {
+			current.put(UserRepository.normalizeEmail(email));
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package dereck.angeles.service;
+
+import dereck.angeles.dto.AnswerAckDto;
+import dereck.angeles.dto.AnswerSubmissionDto;
+import dereck.angeles.dto.QuestionDto;
+import dereck.angeles.model.Interview;
+import dereck.angeles.repository.InterviewRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory state of interviews with an open live connection.
+ * <p>
+ * The first connection to an interview loads its owner and status once;
+ * later frames are served from memory. Answers go through
+ * {@link AnswerIngestionService}, which checkpoints them to
+ * {@code interview_questions} every {@code app.answers.flush-interval}.
+ * Status transitions are written to {@code interviews} when they happen,
+ * after the pending answers are flushed and the recording is finalized. State is dropped, with a final
+ * flush, when the last connection of an interview closes.
+ */
+@ApplicationScoped
+public class LiveInterviewService {
+    private static final Logger logger = LoggerFactory.getLogger(LiveInterviewService.class);
+
+    @Inject
+    InterviewRepository interviewRepository;
+
+    @Inject
+    InterviewService interviewService;
+
+    @Inject
+    AnswerIngestionService answerIngestionService;
+
+    @Inject
+    RecordingIngestService recordingIngestService;
+
+    private final Map<UUID, LiveSession> sessions = new ConcurrentHashMap<>();
+
+    public static final class LiveSession {
+        private final UUID interviewId;
+        private final UUID userId;
+        private volatile String status;
+        private int connections;
+        private boolean closed;
+
+        private LiveSession(UUID interviewId, UUID userId, String status) {
+            this.interviewId = interviewId;
+            this.userId = userId;
+            this.status = status;
+        }
+
+        public UUID interviewId() {
+            return interviewId;
+        }
+
+        public UUID userId() {
+            return userId;
+        }
+
+        public String status() {
+            return status;
+        }
+    }
+
+    /**
+     * Registers a connection for the user's interview.
+     *
+     * @throws IllegalArgumentException if the interview does not exist or
+     *                                  belongs to another user
+     */
+    public LiveSession join(UUID interviewId, UUID userId) {
+        while (true) {
+            LiveSession session = load(interviewId);
+            if (!userId.equals(session.userId)) {
+                throw new IllegalArgumentException("Interview not found");
+            }
+            synchronized (session) {
+                if (!session.closed) {
+                    session.connections++;
+                    return session;
+                }
+            }
+            // The last connection left concurrently; load fresh state
+        }
+    }
+
+    private LiveSession load(UUID interviewId) {
+        LiveSession session = sessions.get(interviewId);
+        if (session == null) {
+            LiveSession loaded = QuarkusTransaction.requiringNew().call(() -> {
+                Interview interview = interviewRepository.findById(interviewId);
+                return interview == null ? null
+                        : new LiveSession(interviewId, interview.getUser().getId(), interview.getStatus());
+            });
+            if (loaded == null) {
+                throw new IllegalArgumentException("Interview not found");
+            }
+            session = sessions.computeIfAbsent(interviewId, id -> loaded);
+        }
+        return session;
+    }
+
+    public void leave(LiveSession session) {
+        synchronized (session) {
+            if (--session.connections > 0) {
+                return;
+            }
+            session.closed = true;
+            sessions.remove(session.interviewId, session);
+        }
+        try {
+            answerIngestionService.close(session.interviewId);
+        } catch (RuntimeException e) {
+            // Answers stay buffered and the periodic flush retries them
+            logger.warn("Final answer flush failed for interview {}: {}", session.interviewId, e.getMessage());
+        }
+    }
+
+    public List<QuestionDto> nextQuestions(LiveSession session, int count) {
+        requireInProgress(session);
+        return interviewService.assignQuestions(session.interviewId, session.userId, count);
+    }
+
+    public AnswerAckDto answer(LiveSession session, AnswerSubmissionDto answer) {
+        requireInProgress(session);
+        return answerIngestionService.submit(session.interviewId, session.userId, List.of(answer), false);
+    }
+
+    /**
+     * Flushes pending answers and finishes any recording in progress, then
+     * marks the interview completed.
+     */
+    public String complete(LiveSession session) {
+        answerIngestionService.flush(session.interviewId);
+        recordingIngestService.complete(session.interviewId, session.userId);
+        String status = interviewService.completeInterview(session.interviewId, session.userId);
+        session.status = status;
+        return status;
+    }
+
+    private static void requireInProgress(LiveSession session) {
+        if (InterviewService.STATUS_COMPLETED.equals(session.status)) {
+            throw new IllegalStateException("Interview is already completed");
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package dereck.angeles.service;
+
+import dereck.angeles.model.Difficulty;
+import dereck.angeles.model.QuestionChanged;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the question bank for picking interview questions.
+ * <p>
+ * Every question has a dense, persistent {@code ordinal} (an identity column
+ * on {@code questions}). The index keeps an {@code ordinal -> id} table and,
+ * per (topic, language, difficulty) bucket, a sorted {@code int[]} of
+ * ordinals. Sampling k questions without replacement is O(k) using Floyd's
+ * algorithm with {@link ThreadLocalRandom}, instead of an
+ * {@code ORDER BY random()} query.
+ * <p>
+ * Readers never lock: bucket arrays are immutable and replaced atomically.
+ * Writes (startup load and committed inserts/updates/deletes reported by
+ * {@link QuestionChanged}) are serialized and only copy the affected bucket.
+ */
+@ApplicationScoped
+public class QuestionBankIndex {
+    private static final Logger logger = LoggerFactory.getLogger(QuestionBankIndex.class);
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Bucket key. Any component may be {@code null} for questions that are
+     * not tied to a topic, language or difficulty.
+     */
+    public record BucketKey(UUID topicId, UUID languageId, Difficulty.DifficultyLevel level) {
+    }
+
+    private record Entry(int ordinal, UUID id, BucketKey key) {
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    private final Map<BucketKey, int[]> buckets = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private volatile UUID[] idsByOrdinal = new UUID[1024];
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        Map<BucketKey, List<Integer>> loaded = new HashMap<>();
+        int count = 0;
+        try (Stream<Object[]> rows = entityManager.createQuery(
+                        "SELECT q.ordinal, q.id, q.topic.id, q.language.id, d.level"
+                                + " FROM Question q LEFT JOIN q.difficulty d", Object[].class)
+                .setHint("org.hibernate.fetchSize", 1000)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                Integer ordinal = (Integer) row[0];
+                if (ordinal == null) {
+                    continue;
+                }
+                Entry entry = new Entry(ordinal, (UUID) row[1],
+                        new BucketKey((UUID) row[2], (UUID) row[3], (Difficulty.DifficultyLevel) row[4]));
+                synchronized (this) {
+                    ensureCapacity(ordinal);
+                    idsByOrdinal[ordinal] = entry.id();
+                }
+                entries.put(entry.id(), entry);
+                loaded.computeIfAbsent(entry.key(), k -> new ArrayList<>()).add(ordinal);
+                count++;
+            }
+        }
+        loaded.forEach((key, ordinals) -> buckets.put(key,
+                ordinals.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        logger.info("Question bank index loaded: {} questions in {} buckets", count, buckets.size());
+    }
+
+    /**
+     * Picks up to {@code k} distinct question ids from the bucket, uniformly
+     * at random, using Floyd's algorithm. Returns fewer than {@code k} if the
+     * bucket is smaller.
+     */
+    public List<UUID> sample(BucketKey key, int k) {
+        int[] bucket = buckets.getOrDefault(key, EMPTY);
+        UUID[] ids = idsByOrdinal;
+        int n = bucket.length;
+        int target = Math.min(k, n);
+        if (target <= 0) {
+            return List.of();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> positions = new HashSet<>(target * 2);
+        List<UUID> picked = new ArrayList<>(target);
+        for (int j = n - target; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            int position = positions.contains(t) ? j : t;
+            positions.add(position);
+            UUID id = idAt(ids, bucket[position]);
+            if (id != null) {
+                picked.add(id);
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * Like {@link #sample(BucketKey, int)} but skips ordinals for which
+     * {@code excluded} is true. Uses rejection sampling, which stays O(k)
+     * while exclusions are a minority of the bucket, and switches to a
+     * filtered scan once too many draws are rejected.
+     */
+    public List<UUID> sample(BucketKey key, int k, IntPredicate excluded) {
+        int[] bucket = buckets.getOrDefault(key, EMPTY);
+        UUID[] ids = idsByOrdinal;
+        int n = bucket.length;
+        if (k <= 0 || n == 0) {
+            return List.of();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Set<Integer> drawn = new HashSet<>();
+        List<UUID> picked = new ArrayList<>(Math.min(k, n));
+        int budget = 4 * k + 16;
+        while (picked.size() < k && drawn.size() < n && budget-- > 0) {
+            int position = random.nextInt(n);
+            if (!drawn.add(position)) {
+                continue;
+            }
+            int ordinal = bucket[position];
+            UUID id = idAt(ids, ordinal);
+            if (id != null && !excluded.test(ordinal)) {
+                picked.add(id);
+            }
+        }
+        if (picked.size() >= k || drawn.size() >= n) {
+            return picked;
+        }
+
+        // Mostly excluded bucket: collect the remaining eligible questions and
+        // finish with a partial Fisher-Yates shuffle
+        List<UUID> candidates = new ArrayList<>();
+        for (int position = 0; position < n; position++) {
+            int ordinal = bucket[position];
+            UUID id = idAt(ids, ordinal);
+            if (id != null && !drawn.contains(position) && !excluded.test(ordinal)) {
+                candidates.add(id);
+            }
+        }
+        for (int i = 0; i < candidates.size() && picked.size() < k; i++) {
+            int swap = i + random.nextInt(candidates.size() - i);
+            Collections.swap(candidates, i, swap);
+            picked.add(candidates.get(i));
+        }
+        return picked;
+    }
+
+    private static UUID idAt(UUID[] ids, int ordinal) {
+        return ordinal < ids.length ? ids[ordinal] : null;
+    }
+
+    public boolean inBucket(BucketKey key, int ordinal) {
+        return Arrays.binarySearch(buckets.getOrDefault(key, EMPTY), ordinal) >= 0;
+    }
+
+    public int bucketSize(BucketKey key) {
+        return buckets.getOrDefault(key, EMPTY).length;
+    }
+
+    /**
+     * Ordinal of a question, or -1 if it is not indexed.
+     */
+    public int ordinalOf(UUID questionId) {
+        Entry entry = entries.get(questionId);
+        return entry == null ? -1 : entry.ordinal();
+    }
+
+    public UUID idOf(int ordinal) {
+        UUID[] ids = idsByOrdinal;
+        return ordinal >= 0 && ordinal < ids.length ? ids[ordinal] : null;
+    }
+
+    /**
+     * Applies a committed write, so a rollback never leaves a phantom
+     * question behind.
+     */
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuestionChanged event) {
+        if (event.removed()) {
+            remove(event.id());
+        } else if (event.ordinal() != null) {
+            upsert(event.ordinal(), event.id(),
+                    new BucketKey(event.topicId(), event.languageId(), event.level()));
+        }
+    }
+
+    synchronized void upsert(int ordinal, UUID id, BucketKey key) {
+        Entry previous = entries.get(id);
+        if (previous != null && previous.key().equals(key) && previous.ordinal() == ordinal) {
+            return;
+        }
+        if (previous != null) {
+            removeFromBucket(previous);
+        }
+        ensureCapacity(ordinal);
+        idsByOrdinal[ordinal] = id;
+        entries.put(id, new Entry(ordinal, id, key));
+        int[] bucket = buckets.getOrDefault(key, EMPTY);
+        int insertAt = Arrays.binarySearch(bucket, ordinal);
+        if (insertAt >= 0) {
+            return;
+        }
+        insertAt = -insertAt - 1;
+        int[] next = new int[bucket.length + 1];
+        System.arraycopy(bucket, 0, next, 0, insertAt);
+        next[insertAt] = ordinal;
+        System.arraycopy(bucket, insertAt, next, insertAt + 1, bucket.length - insertAt);
+        buckets.put(key, next);
+    }
+
+    synchronized void remove(UUID id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        removeFromBucket(previous);
+        idsByOrdinal[previous.ordinal()] = null;
+    }
+
+    private void removeFromBucket(Entry entry) {
+        int[] bucket = buckets.getOrDefault(entry.key(), EMPTY);
+        int at = Arrays.binarySearch(bucket, entry.ordinal());
+        if (at < 0) {
+            return;
+        }
+        int[] next = new int[bucket.length - 1];
+        System.arraycopy(bucket, 0, next, 0, at);
+        System.arraycopy(bucket, at + 1, next, at, bucket.length - at - 1);
+        if (next.length == 0) {
+            buckets.remove(entry.key());
+        } else {
+            buckets.put(entry.key(), next);
+        }
+    }
+
+    private void ensureCapacity(int ordinal) {
+        UUID[] ids = idsByOrdinal;
+        if (ordinal < ids.length) {
+            return;
+        }
+        int size = ids.length;
+        while (size <= ordinal) {
+            size *= 2;
+        }
+        idsByOrdinal = Arrays.copyOf(ids, size);
+    }
+}
@@ -0,0 +1,108 @@
+package dereck.angeles.service;
+
+import dereck.angeles.model.QuestionChanged;
+import dereck.angeles.util.TermVectorIndex;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Ranks questions by textual relevance to a job description or resume.
+ * <p>
+ * Keeps a {@link TermVectorIndex} over {@code Question.questionText}, keyed
+ * by the question's {@code ordinal} like {@link QuestionBankIndex}, so
+ * search filters can use the bank's buckets and the seen-question bitmaps
+ * directly. Loaded at startup and updated from committed writes reported by
+ * {@link QuestionChanged}. Everything runs locally; there is no embedding
+ * service.
+ */
+@ApplicationScoped
+public class QuestionRelevanceIndex {
+    private static final Logger logger = LoggerFactory.getLogger(QuestionRelevanceIndex.class);
+
+    /**
+     * A ranked question; {@code score} is the cosine similarity in
+     * {@code [0, 1]}.
+     */
+    public record Match(UUID id, int ordinal, float score) {
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    QuestionBankIndex questionBankIndex;
+
+    private final TermVectorIndex index = new TermVectorIndex();
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        try (Stream<Object[]> rows = entityManager.createQuery(
+                        "SELECT q.ordinal, q.questionText FROM Question q", Object[].class)
+                .setHint("org.hibernate.fetchSize", 1000)
+                .setHint("org.hibernate.readOnly", true)
+                .getResultStream()) {
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                if (row[0] != null && row[1] != null) {
+                    index.put((Integer) row[0], (String) row[1]);
+                }
+            }
+        }
+        logger.info("Question relevance index loaded: {} questions", index.size());
+    }
+
+    /**
+     * Returns up to {@code k} questions most relevant to {@code text}, best
+     * first, among those whose ordinal {@code accept} allows. Questions with
+     * no term in common with {@code text} are never returned.
+     */
+    public List<Match> topK(String text, int k, IntPredicate accept) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<TermVectorIndex.Hit> hits = index.topK(text, k, accept);
+        List<Match> matches = new ArrayList<>(hits.size());
+        for (TermVectorIndex.Hit hit : hits) {
+            UUID id = questionBankIndex.idOf(hit.doc());
+            if (id != null) {
+                matches.add(new Match(id, hit.doc(), hit.score()));
+            }
+        }
+        return matches;
+    }
+
+    void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) QuestionChanged event) {
+        if (event.ordinal() == null) {
+            return;
+        }
+        if (event.removed()) {
+            remove(event.ordinal());
+        } else {
+            put(event.ordinal(), event.questionText());
+        }
+    }
+
+    void put(int ordinal, String questionText) {
+        if (questionText == null) {
+            index.remove(ordinal);
+        } else {
+            index.put(ordinal, questionText);
+        }
+    }
+
+    void remove(int ordinal) {
+        index.remove(ordinal);
+    }
+}
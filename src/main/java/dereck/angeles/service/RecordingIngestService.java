@@ -0,0 +1,371 @@
+package dereck.angeles.service;
+
+import dereck.angeles.config.DatabasePermits;
+import dereck.angeles.model.File;
+import dereck.angeles.model.User;
+import dereck.angeles.repository.FileRepository;
+import dereck.angeles.repository.InterviewRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streams interview recordings into S3 while the interview is running.
+ * <p>
+ * The client posts MediaRecorder chunks as they are produced. Chunks are
+ * copied into a fixed buffer of {@code app.recording.part-size} bytes (at
+ * least 5 MB, the S3 minimum for non-final parts); each time the buffer
+ * fills it is sent as the next part of a multipart upload in the
+ * interview-recordings bucket. Memory per stream is therefore bounded by one
+ * part. Completing the recording uploads the remaining bytes as the final
+ * part, completes the multipart upload, creates the {@link File} row and sets
+ * {@code Interview.videoUrl}, so the recording is available as soon as the
+ * interview ends. Abandoned uploads are aborted after
+ * {@code app.recording.idle-timeout}.
+ */
+@ApplicationScoped
+public class RecordingIngestService {
+    private static final Logger logger = LoggerFactory.getLogger(RecordingIngestService.class);
+
+    private static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+    private static final int READ_BLOCK = 64 * 1024;
+
+    @Inject
+    S3Client s3Client;
+
+    @Inject
+    DatabasePermits databasePermits;
+
+    @Inject
+    FileStorageService fileStorageService;
+
+    @Inject
+    FileRepository fileRepository;
+
+    @Inject
+    InterviewRepository interviewRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "app.recording.part-size", defaultValue = "8388608")
+    int partSize;
+
+    @ConfigProperty(name = "app.recording.max-size", defaultValue = "2147483648")
+    long maxSize;
+
+    @ConfigProperty(name = "app.recording.idle-timeout", defaultValue = "PT1H")
+    Duration idleTimeout;
+
+    private final Map<UUID, Upload> uploads = new ConcurrentHashMap<>();
+
+    private static final class Upload {
+        final UUID interviewId;
+        final UUID userId;
+        final String bucket;
+        final String key;
+        final String filename;
+        final String contentType;
+        final String uploadId;
+        final byte[] buffer;
+        final List<CompletedPart> parts = new ArrayList<>();
+        // Held across S3 calls; a lock rather than a monitor so virtual threads unmount while waiting
+        final ReentrantLock lock = new ReentrantLock();
+        int buffered;
+        long size;
+        long lastSequence = -1;
+        long lastActivity = System.currentTimeMillis();
+        boolean closed;
+        // Rollback point of the chunk being appended, see beginChunk
+        boolean inChunk;
+        long chunkSize;
+        int chunkParts;
+        int chunkBuffered;
+        byte[] chunkPrefix;
+
+        Upload(UUID interviewId, UUID userId, String bucket, String key, String filename,
+               String contentType, String uploadId, int partSize) {
+            this.interviewId = interviewId;
+            this.userId = userId;
+            this.bucket = bucket;
+            this.key = key;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.uploadId = uploadId;
+            this.buffer = new byte[partSize];
+        }
+
+        void beginChunk() {
+            inChunk = true;
+            chunkSize = size;
+            chunkParts = parts.size();
+            chunkBuffered = buffered;
+            chunkPrefix = null;
+        }
+
+        /**
+         * Saves the bytes of earlier chunks still in the buffer before a part
+         * upload reuses it, so the chunk can be rolled back.
+         */
+        void beforePartUpload() {
+            if (inChunk && chunkPrefix == null) {
+                chunkPrefix = Arrays.copyOf(buffer, chunkBuffered);
+            }
+        }
+
+        void endChunk() {
+            inChunk = false;
+            chunkPrefix = null;
+        }
+
+        /**
+         * Restores the state from before the failed chunk. Parts uploaded for
+         * it are forgotten; the retry uploads the same part numbers again,
+         * which replaces them in S3.
+         */
+        void rollbackChunk() {
+            if (chunkPrefix != null) {
+                System.arraycopy(chunkPrefix, 0, buffer, 0, chunkPrefix.length);
+            }
+            buffered = chunkBuffered;
+            size = chunkSize;
+            while (parts.size() > chunkParts) {
+                parts.remove(parts.size() - 1);
+            }
+            endChunk();
+        }
+    }
+
+    /**
+     * Appends one chunk to the interview's recording, starting the multipart
+     * upload on the first chunk. A chunk whose {@code sequence} is not
+     * greater than the last one received is treated as a retry and skipped.
+     * A chunk that fails partway (client disconnect, S3 error, size limit) is
+     * rolled back, so retrying it with the same {@code sequence} appends it
+     * exactly once.
+     *
+     * @return total bytes received so far
+     */
+    public long append(UUID interviewId, UUID userId, String contentType, long sequence,
+                       InputStream chunk) throws IOException {
+        Upload upload = uploadFor(interviewId, userId, contentType);
+        upload.lock.lock();
+        try {
+            if (upload.closed) {
+                throw new IllegalStateException("Recording already completed");
+            }
+            if (sequence <= upload.lastSequence) {
+                chunk.transferTo(OutputStream.nullOutputStream());
+                return upload.size;
+            }
+            byte[] block = new byte[READ_BLOCK];
+            int read;
+            upload.beginChunk();
+            try {
+                while ((read = chunk.read(block)) != -1) {
+                    write(upload, block, read);
+                }
+            } catch (IOException | RuntimeException e) {
+                upload.rollbackChunk();
+                throw e;
+            }
+            upload.endChunk();
+            upload.lastSequence = sequence;
+            upload.lastActivity = System.currentTimeMillis();
+            return upload.size;
+        } finally {
+            upload.lock.unlock();
+        }
+    }
+
+    /**
+     * Finishes the recording if one is in progress and returns the download
+     * URL stored in {@code Interview.videoUrl}, or {@code null} if nothing was
+     * recorded.
+     */
+    public String complete(UUID interviewId, UUID userId) {
+        Upload upload = uploads.get(interviewId);
+        if (upload == null) {
+            return null;
+        }
+        if (!upload.userId.equals(userId)) {
+            throw new IllegalArgumentException("Interview not found");
+        }
+        upload.lock.lock();
+        try {
+            if (upload.closed) {
+                return null;
+            }
+            upload.closed = true;
+            uploads.remove(interviewId, upload);
+            try {
+                if (upload.buffered > 0 || upload.parts.isEmpty()) {
+                    uploadPart(upload);
+                }
+                s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                        .bucket(upload.bucket)
+                        .key(upload.key)
+                        .uploadId(upload.uploadId)
+                        .multipartUpload(CompletedMultipartUpload.builder().parts(upload.parts).build())
+                        .build());
+            } catch (RuntimeException e) {
+                abort(upload);
+                throw e;
+            }
+            // Only the database write takes a permit, not the S3 calls above
+            String url = databasePermits.call(
+                    () -> QuarkusTransaction.requiringNew().call(() -> saveRecording(upload)));
+            logger.info("Recording for interview {} completed: {} bytes in {} parts",
+                    interviewId, upload.size, upload.parts.size());
+            return url;
+        } finally {
+            upload.lock.unlock();
+        }
+    }
+
+    private Upload uploadFor(UUID interviewId, UUID userId, String contentType) {
+        Upload upload = uploads.get(interviewId);
+        if (upload == null) {
+            Object[] setup = databasePermits.call(() -> QuarkusTransaction.requiringNew()
+                    .call(() -> interviewRepository.findOwnerAndBucket(interviewId)));
+            if (setup == null || !userId.equals(setup[0])) {
+                throw new IllegalArgumentException("Interview not found");
+            }
+            // Started outside the map so the S3 call doesn't block other interviews' map bins
+            Upload started = start(interviewId, userId, contentType);
+            upload = uploads.putIfAbsent(interviewId, started);
+            if (upload == null) {
+                upload = started;
+            } else {
+                abort(started);
+            }
+        }
+        if (!upload.userId.equals(userId)) {
+            throw new IllegalArgumentException("Interview not found");
+        }
+        return upload;
+    }
+
+    private Upload start(UUID interviewId, UUID userId, String contentType) {
+        String type = contentType == null || contentType.isBlank() ? "video/webm" : contentType.split(";")[0].trim();
+        String filename = "interview-" + interviewId + (type.startsWith("audio/") ? ".weba" : ".webm");
+        String bucket = fileStorageService.getBucketForFileType(File.FileType.INTERVIEW_RECORDING);
+        String key = fileStorageService.generateEnterpriseObjectKey(
+                File.FileType.INTERVIEW_RECORDING, userId.toString(), filename);
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(type)
+                .build()).uploadId();
+        return new Upload(interviewId, userId, bucket, key, filename, type, uploadId,
+                Math.max(partSize, MIN_PART_SIZE));
+    }
+
+    private void write(Upload upload, byte[] data, int length) {
+        if (upload.size + length > maxSize) {
+            throw new IllegalStateException("Recording exceeds the maximum size");
+        }
+        int offset = 0;
+        while (offset < length) {
+            int n = Math.min(length - offset, upload.buffer.length - upload.buffered);
+            System.arraycopy(data, offset, upload.buffer, upload.buffered, n);
+            upload.buffered += n;
+            upload.size += n;
+            offset += n;
+            if (upload.buffered == upload.buffer.length) {
+                uploadPart(upload);
+            }
+        }
+    }
+
+    private void uploadPart(Upload upload) {
+        upload.beforePartUpload();
+        int partNumber = upload.parts.size() + 1;
+        String etag = s3Client.uploadPart(UploadPartRequest.builder()
+                        .bucket(upload.bucket)
+                        .key(upload.key)
+                        .uploadId(upload.uploadId)
+                        .partNumber(partNumber)
+                        .contentLength((long) upload.buffered)
+                        .build(),
+                RequestBody.fromBytes(upload.buffered == upload.buffer.length
+                        ? upload.buffer : Arrays.copyOf(upload.buffer, upload.buffered))).eTag();
+        upload.parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+        upload.buffered = 0;
+    }
+
+    private String saveRecording(Upload upload) {
+        File file = File.builder()
+                .originalFilename(upload.filename)
+                .storedFilename(upload.key)
+                .contentType(upload.contentType)
+                .fileSize(upload.size)
+                .bucketName(upload.bucket)
+                .fileType(File.FileType.INTERVIEW_RECORDING)
+                .user(entityManager.getReference(User.class, upload.userId))
+                .build();
+        fileRepository.persist(file);
+        String url = fileStorageService.generateDownloadUrl(file.getId().toString());
+        interviewRepository.updateVideoUrl(upload.interviewId, url);
+        return url;
+    }
+
+    private void abort(Upload upload) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(upload.bucket)
+                    .key(upload.key)
+                    .uploadId(upload.uploadId)
+                    .build());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to abort recording upload {}: {}", upload.uploadId, e.getMessage());
+        }
+    }
+
+    @Scheduled(every = "1m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void abortIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        for (Upload upload : uploads.values()) {
+            // Skip uploads busy with a chunk; they are not idle
+            if (!upload.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (upload.closed || upload.lastActivity > cutoff) {
+                    continue;
+                }
+                upload.closed = true;
+                uploads.remove(upload.interviewId, upload);
+            } finally {
+                upload.lock.unlock();
+            }
+            logger.info("Aborting idle recording upload for interview {}", upload.interviewId);
+            abort(upload);
+        }
+    }
+}
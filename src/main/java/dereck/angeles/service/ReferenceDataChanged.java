@@ -0,0 +1,9 @@
+package dereck.angeles.service;
+
+/**
+ * CDI event fired when topics, languages or difficulties are written.
+ * {@link ReferenceDataRegistry} rebuilds its snapshot once the writing
+ * transaction commits.
+ */
+public record ReferenceDataChanged(String source) {
+}
@@ -0,0 +1,172 @@
+package dereck.angeles.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dereck.angeles.dto.BootstrapDto;
+import dereck.angeles.dto.DifficultyDto;
+import dereck.angeles.dto.LanguageDto;
+import dereck.angeles.dto.TopicDto;
+import dereck.angeles.model.Difficulty;
+import dereck.angeles.model.Language;
+import dereck.angeles.model.Topic;
+import dereck.angeles.repository.DifficultyRepository;
+import dereck.angeles.repository.LanguageRepository;
+import dereck.angeles.repository.TopicRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the current {@link ReferenceDataSnapshot}.
+ * <p>
+ * Topics, languages and difficulties only change when they are seeded, so
+ * reads are served from an immutable snapshot instead of running
+ * {@code listAll()} per request. The snapshot is built at startup, so the
+ * non-blocking endpoints that read it never touch the database, and rebuilt
+ * after any transaction that fires {@link ReferenceDataChanged} commits.
+ */
+@ApplicationScoped
+public class ReferenceDataRegistry {
+	private static final Logger logger = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+
+	private final TopicRepository topicRepository;
+	private final LanguageRepository languageRepository;
+	private final DifficultyRepository difficultyRepository;
+	private final ObjectMapper objectMapper;
+
+	private final AtomicLong versions = new AtomicLong();
+	private volatile ReferenceDataSnapshot snapshot;
+
+	@Inject
+	public ReferenceDataRegistry(TopicRepository topicRepository,
+															 LanguageRepository languageRepository,
+															 DifficultyRepository difficultyRepository,
+															 ObjectMapper objectMapper) {
+		this.topicRepository = topicRepository;
+		this.languageRepository = languageRepository;
+		this.difficultyRepository = difficultyRepository;
+		this.objectMapper = objectMapper;
+	}
+
+	public ReferenceDataSnapshot snapshot() {
+		ReferenceDataSnapshot current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null) {
+					current = rebuild();
+				}
+			}
+		}
+		return current;
+	}
+
+	void onStart(@Observes StartupEvent ev) {
+		snapshot();
+	}
+
+	void onChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) ReferenceDataChanged event) {
+		logger.info("Reference data changed ({}), rebuilding snapshot", event.source());
+		synchronized (this) {
+			rebuild();
+		}
+	}
+
+	private ReferenceDataSnapshot rebuild() {
+		ReferenceDataSnapshot next = QuarkusTransaction.requiringNew().call(this::load);
+		snapshot = next;
+		logger.debug("Reference data snapshot v{}: {} topics, {} languages, {} difficulties",
+								 next.version(), next.topics().size(), next.languages().size(),
+								 next.difficulties().size());
+		return next;
+	}
+
+	private ReferenceDataSnapshot load() {
+		List<TopicDto> topics = topicRepository.listAll().stream()
+					.map(ReferenceDataRegistry::toDto)
+					.sorted(Comparator.comparing(TopicDto::name))
+					.toList();
+		List<LanguageDto> languages = languageRepository.listAll().stream()
+					.map(ReferenceDataRegistry::toDto)
+					.sorted(Comparator.comparing(LanguageDto::name))
+					.toList();
+		List<DifficultyDto> difficulties = difficultyRepository.listAll().stream()
+					.map(ReferenceDataRegistry::toDto)
+					.sorted(Comparator.comparing(DifficultyDto::level))
+					.toList();
+
+		Map<UUID, TopicDto> topicsById = new LinkedHashMap<>();
+		topics.forEach(t -> topicsById.put(t.id(), t));
+		Map<UUID, LanguageDto> languagesById = new LinkedHashMap<>();
+		languages.forEach(l -> languagesById.put(l.id(), l));
+		Map<Difficulty.DifficultyLevel, DifficultyDto> difficultiesByLevel =
+					new EnumMap<>(Difficulty.DifficultyLevel.class);
+		difficulties.forEach(d -> difficultiesByLevel.putIfAbsent(d.level(), d));
+
+		EncodedBody topicsBody = EncodedBody.of(objectMapper, topics);
+		EncodedBody languagesBody = EncodedBody.of(objectMapper, languages);
+		EncodedBody difficultiesBody = EncodedBody.of(objectMapper, difficulties);
+		// Derived from content, so every node computes the same version
+		String bootstrapVersion = EncodedBody.digest((topicsBody.etag() + languagesBody.etag()
+					+ difficultiesBody.etag()).getBytes(StandardCharsets.US_ASCII));
+		EncodedBody bootstrapBody = EncodedBody.of(objectMapper,
+					new BootstrapDto(bootstrapVersion, topics, languages, difficulties), bootstrapVersion);
+
+		return new ReferenceDataSnapshot(
+					versions.incrementAndGet(),
+					topics,
+					languages,
+					difficulties,
+					Map.copyOf(topicsById),
+					Map.copyOf(languagesById),
+					Collections.unmodifiableMap(difficultiesByLevel),
+					topicsBody,
+					languagesBody,
+					difficultiesBody,
+					bootstrapVersion,
+					bootstrapBody
+		);
+	}
+
+	private static TopicDto toDto(Topic topic) {
+		return new TopicDto(
+					topic.getId(),
+					topic.getName(),
+					topic.getDescription(),
+					topic.getCreatedAt(),
+					topic.getUpdatedAt()
+		);
+	}
+
+	private static LanguageDto toDto(Language language) {
+		return new LanguageDto(
+					language.getId(),
+					language.getName(),
+					language.getCreatedAt(),
+					language.getUpdatedAt()
+		);
+	}
+
+	private static DifficultyDto toDto(Difficulty difficulty) {
+		return new DifficultyDto(
+					difficulty.getId(),
+					difficulty.getLevel(),
+					difficulty.getDescription(),
+					difficulty.getYearsOfExperience()
+		);
+	}
+}
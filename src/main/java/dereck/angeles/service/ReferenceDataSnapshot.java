@@ -0,0 +1,35 @@
+package dereck.angeles.service;
+
+import dereck.angeles.dto.DifficultyDto;
+import dereck.angeles.dto.LanguageDto;
+import dereck.angeles.dto.TopicDto;
+import dereck.angeles.model.Difficulty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable view of the reference data (topics, languages, difficulties) at
+ * one point in time. A new instance is built whenever the data changes and
+ * swapped in atomically by {@link ReferenceDataRegistry}.
+ * <p>
+ * Each list is also kept pre-serialized as JSON (plain and gzip) together
+ * with a strong ETag, so endpoints never run Jackson per request. The
+ * bootstrap bundle combines all three under a content-derived version.
+ */
+public record ReferenceDataSnapshot(
+			long version,
+			List<TopicDto> topics,
+			List<LanguageDto> languages,
+			List<DifficultyDto> difficulties,
+			Map<UUID, TopicDto> topicsById,
+			Map<UUID, LanguageDto> languagesById,
+			Map<Difficulty.DifficultyLevel, DifficultyDto> difficultiesByLevel,
+			EncodedBody topicsBody,
+			EncodedBody languagesBody,
+			EncodedBody difficultiesBody,
+			String bootstrapVersion,
+			EncodedBody bootstrapBody
+) {
+}
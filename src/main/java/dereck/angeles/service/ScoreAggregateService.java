@@ -0,0 +1,186 @@
+package dereck.angeles.service;
+
+import dereck.angeles.dto.ScoreAggregateDto;
+import dereck.angeles.model.ScoreAggregate;
+import dereck.angeles.repository.ScoreAggregateRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Per-user and per-segment (topic, language, difficulty) score statistics.
+ * <p>
+ * {@code score_aggregates} holds running counts, sums and min/max of
+ * {@code feedback} scores. {@link #applyFeedback} is called by the code that
+ * writes feedback, in the same transaction, so the table never drifts from
+ * {@code feedback}: new feedback is added as increments, while feedback that
+ * replaces an earlier row (min/max can't be decremented) triggers a
+ * recomputation of just the affected rows. {@link #rebuild()} recomputes the
+ * whole table, e.g. after manual edits to {@code feedback}.
+ */
+@ApplicationScoped
+public class ScoreAggregateService {
+    private static final Logger logger = LoggerFactory.getLogger(ScoreAggregateService.class);
+
+    @Inject
+    ScoreAggregateRepository scoreAggregateRepository;
+
+    private static final class Accumulator {
+        final String dimension;
+        final String key;
+        final UUID userId;
+        final UUID topicId;
+        final UUID languageId;
+        final UUID difficultyId;
+        long feedbackCount;
+        long technicalCount;
+        long technicalSum;
+        Integer technicalMin;
+        Integer technicalMax;
+        long nonTechnicalCount;
+        long nonTechnicalSum;
+        Integer nonTechnicalMin;
+        Integer nonTechnicalMax;
+        long wouldHireCount;
+
+        Accumulator(String dimension, String key, UUID userId, UUID topicId, UUID languageId, UUID difficultyId) {
+            this.dimension = dimension;
+            this.key = key;
+            this.userId = userId;
+            this.topicId = topicId;
+            this.languageId = languageId;
+            this.difficultyId = difficultyId;
+        }
+
+        void add(Integer technical, Integer nonTechnical, Boolean wouldHire) {
+            feedbackCount++;
+            if (technical != null) {
+                technicalCount++;
+                technicalSum += technical;
+                technicalMin = technicalMin == null ? technical : Math.min(technicalMin, technical);
+                technicalMax = technicalMax == null ? technical : Math.max(technicalMax, technical);
+            }
+            if (nonTechnical != null) {
+                nonTechnicalCount++;
+                nonTechnicalSum += nonTechnical;
+                nonTechnicalMin = nonTechnicalMin == null ? nonTechnical : Math.min(nonTechnicalMin, nonTechnical);
+                nonTechnicalMax = nonTechnicalMax == null ? nonTechnical : Math.max(nonTechnicalMax, nonTechnical);
+            }
+            if (Boolean.TRUE.equals(wouldHire)) {
+                wouldHireCount++;
+            }
+        }
+
+        ScoreAggregateRepository.Delta toDelta() {
+            return new ScoreAggregateRepository.Delta(dimension, key, userId, topicId, languageId, difficultyId,
+                    feedbackCount, technicalCount, technicalSum, technicalMin, technicalMax,
+                    nonTechnicalCount, nonTechnicalSum, nonTechnicalMin, nonTechnicalMax, wouldHireCount);
+        }
+    }
+
+    /**
+     * Folds feedback written in the current transaction into the aggregates.
+     *
+     * @param contributions the new feedback rows, read after they were flushed
+     * @param replaced      interviews whose previous feedback was deleted in
+     *                      this transaction; their rows are recomputed instead
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void applyFeedback(List<ScoreAggregateRepository.Contribution> contributions, Set<UUID> replaced) {
+        if (contributions.isEmpty()) {
+            return;
+        }
+        // Sorted so concurrent writers lock aggregate rows in the same order
+        Map<String, Accumulator> increments = new TreeMap<>();
+        Set<UUID> recomputeUsers = new HashSet<>();
+        Set<String> recomputeSegments = new HashSet<>();
+        for (ScoreAggregateRepository.Contribution row : contributions) {
+            UUID userId = row.userId();
+            String segmentKey = segmentKey(row.topicId(), row.languageId(), row.difficultyId());
+            if (replaced.contains(row.interviewId())) {
+                if (userId != null) {
+                    recomputeUsers.add(userId);
+                }
+                recomputeSegments.add(segmentKey);
+                continue;
+            }
+            if (userId != null) {
+                increments.computeIfAbsent(ScoreAggregate.USER + "/" + userId, k -> new Accumulator(
+                                ScoreAggregate.USER, userId.toString(), userId, null, null, null))
+                        .add(row.technicalScore(), row.nonTechnicalScore(), row.wouldHire());
+            }
+            increments.computeIfAbsent(ScoreAggregate.SEGMENT + "/" + segmentKey, k -> new Accumulator(
+                            ScoreAggregate.SEGMENT, segmentKey, null, row.topicId(), row.languageId(),
+                            row.difficultyId()))
+                    .add(row.technicalScore(), row.nonTechnicalScore(), row.wouldHire());
+        }
+
+        // Recomputed keys already include the new rows
+        increments.values().removeIf(a -> ScoreAggregate.USER.equals(a.dimension)
+                ? recomputeUsers.contains(a.userId) : recomputeSegments.contains(a.key));
+        List<ScoreAggregateRepository.Delta> deltas = new ArrayList<>(increments.size());
+        for (Accumulator accumulator : increments.values()) {
+            deltas.add(accumulator.toDelta());
+        }
+        scoreAggregateRepository.applyDeltas(deltas);
+        scoreAggregateRepository.recompute(recomputeUsers, recomputeSegments);
+    }
+
+    /**
+     * Recomputes the whole table from {@code feedback}.
+     *
+     * @return number of aggregate rows written
+     */
+    @Transactional
+    public int rebuild() {
+        scoreAggregateRepository.lockForRebuild();
+        int rows = scoreAggregateRepository.rebuildAll();
+        logger.info("Rebuilt score aggregates: {} rows", rows);
+        return rows;
+    }
+
+    @Transactional
+    public ScoreAggregateDto forUser(UUID userId) {
+        ScoreAggregate aggregate = scoreAggregateRepository.find(ScoreAggregate.USER, userId.toString());
+        return aggregate == null ? ScoreAggregateDto.empty(ScoreAggregate.USER, userId) : toDto(aggregate);
+    }
+
+    @Transactional
+    public List<ScoreAggregateDto> segments(UUID topicId, UUID languageId, UUID difficultyId) {
+        return scoreAggregateRepository.findSegments(topicId, languageId, difficultyId).stream()
+                .map(ScoreAggregateService::toDto)
+                .toList();
+    }
+
+    static String segmentKey(UUID topicId, UUID languageId, UUID difficultyId) {
+        return keyPart(topicId) + ":" + keyPart(languageId) + ":" + keyPart(difficultyId);
+    }
+
+    private static String keyPart(UUID id) {
+        return id == null ? "-" : id.toString();
+    }
+
+    private static ScoreAggregateDto toDto(ScoreAggregate a) {
+        return new ScoreAggregateDto(a.getId().getDimension(), a.getUserId(), a.getTopicId(), a.getLanguageId(),
+                a.getDifficultyId(), a.getFeedbackCount(),
+                average(a.getTechnicalSum(), a.getTechnicalCount()), a.getTechnicalMin(), a.getTechnicalMax(),
+                average(a.getNonTechnicalSum(), a.getNonTechnicalCount()), a.getNonTechnicalMin(),
+                a.getNonTechnicalMax(),
+                a.getFeedbackCount() == 0 ? null : (double) a.getWouldHireCount() / a.getFeedbackCount(),
+                a.getUpdatedAt());
+    }
+
+    private static Double average(long sum, long count) {
+        return count == 0 ? null : (double) sum / count;
+    }
+}
@@ -0,0 +1,321 @@
+package dereck.angeles.service;
+
+import dereck.angeles.dto.ScorePercentileDto;
+import dereck.angeles.repository.ScoreAggregateRepository;
+import dereck.angeles.repository.ScoreSketchRepository;
+import dereck.angeles.util.ScoreHistogram;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Score percentiles per topic/language/difficulty segment, answered from
+ * memory.
+ * <p>
+ * Each segment keeps a {@link ScoreHistogram} of technical and of
+ * non-technical scores. Feedback written by this node is recorded, after its
+ * transaction commits, both in the in-memory view and in a local delta.
+ * Every {@code app.stats.sketch-persist-interval} the deltas are added to
+ * {@code score_sketches} under row locks and the view is reloaded from the
+ * table, which picks up the deltas of every other node. Histograms merge by
+ * adding counters, so the result is the same whichever order nodes persist
+ * in. A percentile lookup is a map get and a scan over 101 counters.
+ * <p>
+ * A rebuild recounts everything from {@code feedback}, so deltas of feedback
+ * it already counted must not be added again, on any node. Each delta is
+ * tagged with the epoch in {@code score_sketch_epoch} that its feedback
+ * transaction read under a share lock. A rebuild first increments the epoch,
+ * which waits for those transactions to commit, and then reads
+ * {@code feedback}; so a delta with an older epoch is always part of the
+ * rebuilt rows. Persisting reads the epoch under the same lock and discards
+ * older deltas.
+ */
+@ApplicationScoped
+public class ScoreSketchService {
+    private static final Logger logger = LoggerFactory.getLogger(ScoreSketchService.class);
+
+    public enum Metric {
+        TECHNICAL, NON_TECHNICAL
+    }
+
+    @Inject
+    ScoreSketchRepository scoreSketchRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    private static final class Segment {
+        final UUID topicId;
+        final UUID languageId;
+        final UUID difficultyId;
+        final ScoreHistogram technical;
+        final ScoreHistogram nonTechnical;
+
+        Segment(UUID topicId, UUID languageId, UUID difficultyId,
+                ScoreHistogram technical, ScoreHistogram nonTechnical) {
+            this.topicId = topicId;
+            this.languageId = languageId;
+            this.difficultyId = difficultyId;
+            this.technical = technical;
+            this.nonTechnical = nonTechnical;
+        }
+
+        Segment(UUID topicId, UUID languageId, UUID difficultyId) {
+            this(topicId, languageId, difficultyId, new ScoreHistogram(), new ScoreHistogram());
+        }
+
+        Segment copy() {
+            return new Segment(topicId, languageId, difficultyId, technical.copy(), nonTechnical.copy());
+        }
+
+        void merge(Segment other) {
+            technical.merge(other.technical);
+            nonTechnical.merge(other.nonTechnical);
+        }
+
+        ScoreHistogram histogram(Metric metric) {
+            return metric == Metric.TECHNICAL ? technical : nonTechnical;
+        }
+
+        ScoreSketchRepository.Row toRow(String key) {
+            return new ScoreSketchRepository.Row(key, topicId, languageId, difficultyId,
+                    technical.toBytes(), nonTechnical.toBytes());
+        }
+
+        static Segment fromRow(ScoreSketchRepository.Row row) {
+            return new Segment(row.topicId(), row.languageId(), row.difficultyId(),
+                    ScoreHistogram.fromBytes(row.technical()), ScoreHistogram.fromBytes(row.nonTechnical()));
+        }
+    }
+
+    // Persisted histograms of all nodes plus local deltas; segments are replaced, never mutated, once published
+    private volatile Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    // Epoch of the rows behind segments
+    private volatile long viewEpoch = -1;
+
+    // Local deltas not yet added to score_sketches, by epoch; guarded by this
+    private Map<Long, Map<String, Segment>> pending = new HashMap<>();
+
+    private record Snapshot(long epoch, List<ScoreSketchRepository.Row> rows) {
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        QuarkusTransaction.requiringNew().run(() -> scoreSketchRepository.ensureEpoch());
+        reload();
+    }
+
+    /**
+     * Records feedback written in the current transaction once it commits.
+     *
+     * @param removed feedback rows replaced in this transaction
+     * @param added   feedback rows written in this transaction
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void applyFeedback(List<ScoreAggregateRepository.Contribution> removed,
+                              List<ScoreAggregateRepository.Contribution> added) {
+        Map<String, Segment> delta = new HashMap<>();
+        for (ScoreAggregateRepository.Contribution row : removed) {
+            Segment segment = deltaSegment(delta, row);
+            if (row.technicalScore() != null) {
+                segment.technical.remove(clamp(row.technicalScore()));
+            }
+            if (row.nonTechnicalScore() != null) {
+                segment.nonTechnical.remove(clamp(row.nonTechnicalScore()));
+            }
+        }
+        for (ScoreAggregateRepository.Contribution row : added) {
+            Segment segment = deltaSegment(delta, row);
+            if (row.technicalScore() != null) {
+                segment.technical.record(clamp(row.technicalScore()));
+            }
+            if (row.nonTechnicalScore() != null) {
+                segment.nonTechnical.record(clamp(row.nonTechnicalScore()));
+            }
+        }
+        if (delta.isEmpty()) {
+            return;
+        }
+        long epoch = scoreSketchRepository.lockEpochShared();
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    record(epoch, delta);
+                }
+            }
+        });
+    }
+
+    /**
+     * Share of recorded scores in the segment strictly below {@code score}.
+     */
+    public ScorePercentileDto percentile(UUID topicId, UUID languageId, UUID difficultyId,
+                                         Metric metric, int score) {
+        Segment segment = segments.get(ScoreAggregateService.segmentKey(topicId, languageId, difficultyId));
+        ScoreHistogram histogram = segment == null ? null : segment.histogram(metric);
+        long sampleSize = histogram == null ? 0 : histogram.total();
+        Double percentile = sampleSize == 0 ? null : histogram.rankBelow(score) * 100;
+        Integer median = sampleSize == 0 ? null : histogram.quantile(0.5);
+        return new ScorePercentileDto(topicId, languageId, difficultyId, metric.name(), score,
+                percentile, median, sampleSize);
+    }
+
+    /**
+     * Recomputes {@code score_sketches} from {@code feedback} under a new
+     * epoch; unsaved deltas of every node from older epochs are discarded
+     * when they are next persisted.
+     *
+     * @return number of segments written
+     */
+    public int rebuild() {
+        int written = QuarkusTransaction.requiringNew().call(() -> {
+            // Waits for feedback and persist transactions holding the current epoch
+            scoreSketchRepository.advanceEpoch();
+            scoreSketchRepository.lockForRebuild();
+            Map<String, Segment> rebuilt = new HashMap<>();
+            for (Object[] row : scoreSketchRepository.findScoreCounts()) {
+                UUID topicId = (UUID) row[0];
+                UUID languageId = (UUID) row[1];
+                UUID difficultyId = (UUID) row[2];
+                Segment segment = rebuilt.computeIfAbsent(
+                        ScoreAggregateService.segmentKey(topicId, languageId, difficultyId),
+                        k -> new Segment(topicId, languageId, difficultyId));
+                long count = ((Number) row[5]).longValue();
+                if (row[3] != null) {
+                    segment.technical.record(clamp((Integer) row[3]), count);
+                }
+                if (row[4] != null) {
+                    segment.nonTechnical.record(clamp((Integer) row[4]), count);
+                }
+            }
+            scoreSketchRepository.deleteAll();
+            rebuilt.forEach((key, segment) -> scoreSketchRepository.save(segment.toRow(key)));
+            return rebuilt.size();
+        });
+        reload();
+        logger.info("Rebuilt score sketches: {} segments", written);
+        return written;
+    }
+
+    @Scheduled(every = "${app.stats.sketch-persist-interval:30s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void persist() {
+        Map<Long, Map<String, Segment>> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        if (!batch.isEmpty()) {
+            try {
+                QuarkusTransaction.requiringNew().run(() -> write(batch));
+            } catch (RuntimeException e) {
+                logger.warn("Could not persist score sketch deltas, retrying later: {}", e.getMessage());
+                synchronized (this) {
+                    batch.forEach((epoch, deltas) -> deltas.forEach((key, delta) ->
+                            pending.computeIfAbsent(epoch, k -> new HashMap<>()).merge(key, delta, (current, older) -> {
+                                current.merge(older);
+                                return current;
+                            })));
+                }
+                return;
+            }
+        }
+        reload();
+    }
+
+    private void write(Map<Long, Map<String, Segment>> deltas) {
+        long epoch = scoreSketchRepository.lockEpochShared();
+        deltas.keySet().stream().filter(e -> e < epoch).forEach(stale ->
+                logger.debug("Discarding {} score sketch deltas of epoch {}, rebuilt since",
+                        deltas.get(stale).size(), stale));
+        Map<String, Segment> batch = deltas.get(epoch);
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        TreeSet<String> keys = new TreeSet<>(batch.keySet());
+        for (String key : keys) {
+            Segment delta = batch.get(key);
+            scoreSketchRepository.insertIfAbsent(
+                    new Segment(delta.topicId, delta.languageId, delta.difficultyId).toRow(key));
+        }
+        Map<String, ScoreSketchRepository.Row> stored = scoreSketchRepository.findForUpdate(keys);
+        for (String key : keys) {
+            Segment merged = Segment.fromRow(stored.get(key));
+            merged.merge(batch.get(key));
+            merged.technical.clampNegative();
+            merged.nonTechnical.clampNegative();
+            scoreSketchRepository.save(merged.toRow(key));
+        }
+    }
+
+    private void reload() {
+        Snapshot snapshot = QuarkusTransaction.requiringNew().call(() -> {
+            long epoch = scoreSketchRepository.findEpoch();
+            return new Snapshot(epoch, scoreSketchRepository.findAll());
+        });
+        Map<String, Segment> loaded = new ConcurrentHashMap<>();
+        for (ScoreSketchRepository.Row row : snapshot.rows()) {
+            loaded.put(row.segmentKey(), Segment.fromRow(row));
+        }
+        synchronized (this) {
+            // Older deltas are in the rebuilt rows
+            pending.keySet().removeIf(epoch -> epoch < snapshot.epoch());
+            // Deltas recorded since the last persist are not in the table yet
+            pending.getOrDefault(snapshot.epoch(), Map.of()).forEach((key, delta) -> loaded.computeIfAbsent(key,
+                    k -> new Segment(delta.topicId, delta.languageId, delta.difficultyId)).merge(delta));
+            segments = loaded;
+            viewEpoch = snapshot.epoch();
+        }
+    }
+
+    private synchronized void record(long epoch, Map<String, Segment> delta) {
+        if (epoch < viewEpoch) {
+            // Counted by a rebuild this node has already loaded
+            return;
+        }
+        Map<String, Segment> deltas = pending.computeIfAbsent(epoch, k -> new HashMap<>());
+        delta.forEach((key, d) -> {
+            deltas.computeIfAbsent(key, k -> new Segment(d.topicId, d.languageId, d.difficultyId)).merge(d);
+            if (epoch != viewEpoch) {
+                // Shown once the view is reloaded at that epoch
+                return;
+            }
+            segments.compute(key, (k, current) -> {
+                Segment next = current == null ? new Segment(d.topicId, d.languageId, d.difficultyId) : current.copy();
+                next.merge(d);
+                return next;
+            });
+        });
+    }
+
+    private static Segment deltaSegment(Map<String, Segment> delta, ScoreAggregateRepository.Contribution row) {
+        return delta.computeIfAbsent(
+                ScoreAggregateService.segmentKey(row.topicId(), row.languageId(), row.difficultyId()),
+                k -> new Segment(row.topicId(), row.languageId(), row.difficultyId()));
+    }
+
+    private static int clamp(int score) {
+        return Math.max(0, Math.min(ScoreHistogram.MAX_SCORE, score));
+    }
+}
@@ -0,0 +1,119 @@
+package dereck.angeles.service;
+
+import dereck.angeles.repository.SeenQuestionRepository;
+import dereck.angeles.util.CompressedBitmap;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks which questions each user has already been asked.
+ * <p>
+ * The seen-set is a {@link CompressedBitmap} over question ordinals (see
+ * {@link QuestionBankIndex}), persisted in {@code user_seen_questions} and
+ * kept in a bounded LRU cache. A user's bitmap is loaded lazily on first use;
+ * users without a row are backfilled once from {@code interview_questions}.
+ * Question sampling can then test ordinals in memory instead of running a
+ * {@code NOT IN (SELECT question_id ...)} anti-join.
+ * <p>
+ * Cached bitmaps are never mutated: writers merge into a copy and the cache
+ * entry is replaced after the transaction commits.
+ */
+@ApplicationScoped
+public class SeenQuestionService {
+
+    @Inject
+    SeenQuestionRepository seenQuestionRepository;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    @ConfigProperty(name = "app.questions.seen-cache-size", defaultValue = "10000")
+    int cacheSize;
+
+    private Map<UUID, CompressedBitmap> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, CompressedBitmap> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Read-only view of the ordinals the user has seen.
+     */
+    @Transactional
+    public CompressedBitmap seenBy(UUID userId) {
+        CompressedBitmap cached = cache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] stored = seenQuestionRepository.findBitmap(userId);
+        CompressedBitmap bitmap = stored != null ? CompressedBitmap.fromBytes(stored) : backfill(userId);
+        cache.putIfAbsent(userId, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Marks {@code ordinals} as seen by the user. Must be called in the
+     * transaction that writes the matching {@code interview_questions} rows:
+     * the stored bitmap is row-locked and merged there, and the cache is
+     * only updated once that transaction commits.
+     */
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void recordSeen(UUID userId, int[] ordinals) {
+        if (ordinals.length == 0) {
+            return;
+        }
+        if (seenQuestionRepository.findBitmap(userId) == null) {
+            seenQuestionRepository.insertIfAbsent(userId, backfill(userId).toBytes());
+        }
+        CompressedBitmap merged = CompressedBitmap.fromBytes(
+                seenQuestionRepository.findBitmapForUpdate(userId));
+        boolean changed = false;
+        for (int ordinal : ordinals) {
+            changed |= merged.add(ordinal);
+        }
+        if (!changed) {
+            return;
+        }
+        seenQuestionRepository.saveBitmap(userId, merged.toBytes());
+
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    cache.put(userId, merged);
+                } else {
+                    cache.remove(userId);
+                }
+            }
+        });
+    }
+
+    private CompressedBitmap backfill(UUID userId) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (Integer ordinal : seenQuestionRepository.findAskedOrdinals(userId)) {
+            bitmap.add(ordinal);
+        }
+        return bitmap;
+    }
+}
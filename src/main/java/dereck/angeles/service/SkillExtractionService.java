@@ -0,0 +1,92 @@
+package dereck.angeles.service;
+
+import dereck.angeles.util.KeywordAutomaton;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts known skills from free-text job descriptions.
+ * <p>
+ * The dictionary is the seed reference data: topic names, the technologies
+ * named in topic descriptions and language names. It is compiled once into
+ * a {@link KeywordAutomaton}, so a description is scanned in a single pass
+ * whatever the size of the dictionary. Results are cached by SHA-256 of the
+ * description in a bounded LRU map, since the same posting is typically
+ * pasted by many candidates.
+ */
+@ApplicationScoped
+public class SkillExtractionService {
+    private static final Logger logger = LoggerFactory.getLogger(SkillExtractionService.class);
+
+    // Shorter skills ("Go", "R") are also ordinary words or letters; match them only as written
+    private static final int MATCH_CASE_MAX_LENGTH = 2;
+
+    @ConfigProperty(name = "app.skills.cache-size", defaultValue = "1000")
+    int cacheSize;
+
+    private KeywordAutomaton<String> automaton;
+    private Map<String, List<String>> cache;
+
+    @PostConstruct
+    void init() {
+        Set<String> skills = new LinkedHashSet<>();
+        for (DataInitializationService.TopicData topic : DataInitializationService.TOPICS) {
+            skills.add(topic.name());
+            skills.addAll(topic.technologies());
+        }
+        skills.addAll(DataInitializationService.LANGUAGES);
+
+        KeywordAutomaton.Builder<String> builder = KeywordAutomaton.builder();
+        for (String skill : skills) {
+            builder.add(skill, skill, skill.length() <= MATCH_CASE_MAX_LENGTH);
+        }
+        automaton = builder.build();
+        cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        logger.info("Skill dictionary compiled: {} skills", automaton.size());
+    }
+
+    /**
+     * Returns the skills mentioned in {@code jobDescription}, in order of
+     * first mention; empty for a blank description.
+     */
+    public List<String> extract(String jobDescription) {
+        if (jobDescription == null || jobDescription.isBlank()) {
+            return List.of();
+        }
+        String hash = sha256(jobDescription);
+        List<String> skills = cache.get(hash);
+        if (skills == null) {
+            skills = automaton.findAll(jobDescription);
+            cache.put(hash, skills);
+        }
+        return skills;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dereck.angeles.service;
+
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Deterministic local scorer used until a real one is plugged in, and in
+ * tests. The technical score is the average word overlap between each answer
+ * and the question's sample answer; the non-technical score reflects how many
+ * questions were answered and how fully.
+ */
+@DefaultBean
+@ApplicationScoped
+public class StubFeedbackScorer implements FeedbackScorer {
+
+    private static final int FULL_ANSWER_WORDS = 60;
+
+    @Override
+    public Result score(Input input) {
+        List<AnsweredQuestion> questions = input.questions();
+        if (questions.isEmpty()) {
+            return new Result(0, 0, "No questions were answered.", Map.of(), false);
+        }
+        double technical = 0;
+        double completeness = 0;
+        int answered = 0;
+        List<String> review = new ArrayList<>();
+        for (AnsweredQuestion question : questions) {
+            Set<String> answer = words(question.userAnswer());
+            if (answer.isEmpty()) {
+                review.add(question.questionText());
+                continue;
+            }
+            answered++;
+            completeness += Math.min(1.0, answer.size() / (double) FULL_ANSWER_WORDS);
+            Set<String> sample = words(question.sampleAnswer());
+            if (sample.isEmpty()) {
+                technical += Math.min(1.0, answer.size() / (double) FULL_ANSWER_WORDS);
+            } else {
+                Set<String> common = new HashSet<>(answer);
+                common.retainAll(sample);
+                double overlap = common.size() / (double) sample.size();
+                technical += overlap;
+                if (overlap < 0.3) {
+                    review.add(question.questionText());
+                }
+            }
+        }
+        int technicalScore = (int) Math.round(100 * technical / questions.size());
+        int nonTechnicalScore = (int) Math.round(100 * (0.5 * answered / questions.size()
+                + 0.5 * completeness / questions.size()));
+
+        Map<String, Object> tips = new LinkedHashMap<>();
+        tips.put("unansweredQuestions", questions.size() - answered);
+        tips.put("reviewQuestions", review);
+        String comments = String.format(Locale.ROOT, "Answered %d of %d questions.", answered, questions.size());
+        return new Result(technicalScore, nonTechnicalScore, comments, tips,
+                technicalScore >= 70 && nonTechnicalScore >= 60);
+    }
+
+    private static Set<String> words(String text) {
+        Set<String> words = new HashSet<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() > 2) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,356 @@
+package dereck.angeles.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dereck.angeles.dto.UserImportResultDto;
+import dereck.angeles.model.User;
+import dereck.angeles.repository.UserRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk user import from NDJSON or CSV.
+ * <p>
+ * The body is read line by line and processed in chunks. For each chunk the
+ * service validates rows, drops emails that repeat inside the upload or
+ * already exist (one {@code IN} query per chunk), hashes passwords in
+ * parallel on a bounded pool, and inserts the users in a single transaction
+ * using Hibernate JDBC batching. Hashing happens before the transaction opens
+ * so no connection is held while BCrypt runs.
+ * <p>
+ * Expected fields are {@code name}, {@code email} and {@code password}. CSV
+ * input must start with a header row naming those columns.
+ */
+@ApplicationScoped
+public class UserImportService {
+	private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+	public enum Format {
+		NDJSON, CSV
+	}
+
+	@Inject
+	UserRepository userRepository;
+
+	@Inject
+	KnownEmailFilter knownEmailFilter;
+
+	@Inject
+	EntityManager entityManager;
+
+	@Inject
+	ObjectMapper objectMapper;
+
+	@ConfigProperty(name = "app.users.import.chunk-size", defaultValue = "1000")
+	int chunkSize;
+
+	@ConfigProperty(name = "app.users.import.hash-threads", defaultValue = "0")
+	int hashThreads;
+
+	@ConfigProperty(name = "app.users.import.max-reported-errors", defaultValue = "1000")
+	int maxReportedErrors;
+
+	private ExecutorService hashPool;
+
+	@PostConstruct
+	void init() {
+		int threads = hashThreads > 0 ? hashThreads
+					: Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		hashPool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "user-import-bcrypt");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	@PreDestroy
+	void shutdown() {
+		hashPool.shutdownNow();
+	}
+
+	public UserImportResultDto importUsers(InputStream body, Format format) throws IOException {
+		long started = System.currentTimeMillis();
+		ImportState state = new ImportState();
+		Set<String> seenInUpload = new HashSet<>();
+
+		try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(body, StandardCharsets.UTF_8))) {
+			CsvHeader header = null;
+			List<Row> chunk = new ArrayList<>(chunkSize);
+			String line;
+			long lineNumber = 0;
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				if (format == Format.CSV && header == null) {
+					header = CsvHeader.parse(line);
+					continue;
+				}
+				state.total++;
+				Row row;
+				try {
+					row = format == Format.CSV ? header.toRow(lineNumber, line) : parseJson(lineNumber, line);
+				} catch (Exception e) {
+					state.error(lineNumber, null, "Malformed row: " + e.getMessage());
+					continue;
+				}
+				String problem = validate(row);
+				if (problem != null) {
+					state.error(lineNumber, row.email, problem);
+					continue;
+				}
+				if (!seenInUpload.add(row.email)) {
+					state.error(lineNumber, row.email, "Duplicate email in upload");
+					continue;
+				}
+				chunk.add(row);
+				if (chunk.size() >= chunkSize) {
+					processChunk(chunk, state);
+					chunk = new ArrayList<>(chunkSize);
+				}
+			}
+			if (format == Format.CSV && header == null) {
+				throw new IOException("CSV input is missing a header row");
+			}
+			if (!chunk.isEmpty()) {
+				processChunk(chunk, state);
+			}
+		}
+
+		long elapsed = System.currentTimeMillis() - started;
+		logger.info("User import finished: {} rows, {} imported, {} failed in {} ms",
+								state.total, state.imported, state.failed, elapsed);
+		return new UserImportResultDto(state.total, state.imported, state.failed, elapsed, state.errors);
+	}
+
+	private void processChunk(List<Row> chunk, ImportState state) {
+		Set<String> existing = QuarkusTransaction.requiringNew()
+					.call(() -> userRepository.findExistingEmails(
+								chunk.stream().map(Row::email).toList()));
+
+		List<Row> fresh = new ArrayList<>(chunk.size());
+		for (Row row : chunk) {
+			if (existing.contains(row.email)) {
+				state.error(row.line, row.email, "Email already registered");
+			} else {
+				fresh.add(row);
+			}
+		}
+		if (fresh.isEmpty()) {
+			return;
+		}
+
+		List<User> users = hashAll(fresh, state);
+		if (users.isEmpty()) {
+			return;
+		}
+
+		try {
+			QuarkusTransaction.requiringNew().run(() -> insertBatch(users));
+			users.forEach(u -> knownEmailFilter.add(u.getEmail()));
+			state.imported += users.size();
+		} catch (RuntimeException e) {
+			// A concurrent registration won the race for some email; retry row by
+			// row so only the conflicting rows are reported.
+			logger.warn("Batch insert of {} users failed, retrying individually: {}",
+									users.size(), e.getMessage());
+			for (int i = 0; i < users.size(); i++) {
+				User user = users.get(i);
+				user.setId(null);
+				try {
+					QuarkusTransaction.requiringNew().run(() -> insertBatch(List.of(user)));
+					knownEmailFilter.add(user.getEmail());
+					state.imported++;
+				} catch (RuntimeException rowError) {
+					state.error(lineOf(fresh, user.getEmail()), user.getEmail(), "Insert failed: "
+								+ rootMessage(rowError));
+				}
+			}
+		}
+	}
+
+	private List<User> hashAll(List<Row> rows, ImportState state) {
+		List<Future<String>> hashes = new ArrayList<>(rows.size());
+		for (Row row : rows) {
+			hashes.add(hashPool.submit(() -> BCrypt.hashpw(row.password, BCrypt.gensalt())));
+		}
+		Instant now = Instant.now();
+		List<User> users = new ArrayList<>(rows.size());
+		for (int i = 0; i < rows.size(); i++) {
+			Row row = rows.get(i);
+			try {
+				User user = new User();
+				user.setName(row.name);
+				user.setEmail(row.email);
+				user.setPassword(hashes.get(i).get());
+				user.setRole(User.AuthRole.USER);
+				user.setCreatedAt(now);
+				users.add(user);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("User import interrupted", e);
+			} catch (ExecutionException e) {
+				state.error(row.line, row.email, "Password hashing failed: " + rootMessage(e));
+			}
+		}
+		return users;
+	}
+
+	/**
+	 * Persists the users and flushes once so Hibernate groups the inserts into
+	 * JDBC batches ({@code quarkus.hibernate-orm.jdbc.statement-batch-size}).
+	 */
+	private void insertBatch(List<User> users) {
+		for (User user : users) {
+			entityManager.persist(user);
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	private Row parseJson(long line, String json) throws IOException {
+		JsonNode node = objectMapper.readTree(json);
+		return new Row(line, text(node, "name"),
+									 UserRepository.normalizeEmail(text(node, "email")),
+									 text(node, "password"));
+	}
+
+	private static String text(JsonNode node, String field) {
+		JsonNode value = node.get(field);
+		return value == null || value.isNull() ? null : value.asText();
+	}
+
+	private static String validate(Row row) {
+		if (row.email == null || row.email.isEmpty() || row.email.indexOf('@') < 1) {
+			return "Invalid email";
+		}
+		if (row.email.length() > 255) {
+			return "Email longer than 255 characters";
+		}
+		if (row.password == null || row.password.isEmpty()) {
+			return "Missing password";
+		}
+		if (row.name != null && row.name.length() > 255) {
+			return "Name longer than 255 characters";
+		}
+		return null;
+	}
+
+	private static long lineOf(List<Row> rows, String email) {
+		for (Row row : rows) {
+			if (row.email.equals(email)) {
+				return row.line;
+			}
+		}
+		return -1;
+	}
+
+	private static String rootMessage(Throwable e) {
+		Throwable root = e;
+		while (root.getCause() != null && root.getCause() != root) {
+			root = root.getCause();
+		}
+		return root.getMessage();
+	}
+
+	/**
+	 * Minimal RFC 4180 splitter: handles quoted fields and doubled quotes, but
+	 * not line breaks inside quotes.
+	 */
+	static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder current = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						current.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					current.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(current.toString());
+				current.setLength(0);
+			} else {
+				current.append(c);
+			}
+		}
+		fields.add(current.toString());
+		return fields;
+	}
+
+	private record Row(long line, String name, String email, String password) {}
+
+	private record CsvHeader(int name, int email, int password) {
+		static CsvHeader parse(String line) throws IOException {
+			List<String> columns = splitCsv(line).stream()
+						.map(c -> c.trim().toLowerCase())
+						.toList();
+			int email = columns.indexOf("email");
+			int password = columns.indexOf("password");
+			if (email < 0 || password < 0) {
+				throw new IOException("CSV header must contain 'email' and 'password' columns");
+			}
+			return new CsvHeader(columns.indexOf("name"), email, password);
+		}
+
+		Row toRow(long line, String csv) {
+			List<String> fields = splitCsv(csv);
+			return new Row(line,
+										 field(fields, name),
+										 UserRepository.normalizeEmail(field(fields, email)),
+										 field(fields, password));
+		}
+
+		private static String field(List<String> fields, int index) {
+			return index >= 0 && index < fields.size() ? fields.get(index) : null;
+		}
+	}
+
+	private final class ImportState {
+		long total;
+		long imported;
+		long failed;
+		final List<UserImportResultDto.RowError> errors = new ArrayList<>();
+
+		void error(long line, String email, String message) {
+			failed++;
+			if (errors.size() < maxReportedErrors) {
+				errors.add(new UserImportResultDto.RowError(line, email, message));
+			}
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package dereck.angeles.service;
+
+import dereck.angeles.model.VerificationToken;
+import dereck.angeles.model.VerificationTokenId;
+import dereck.angeles.repository.VerificationTokenRepository;
+import dereck.angeles.util.HierarchicalTimingWheel;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Issues and validates email verification tokens.
+ * <p>
+ * Outstanding tokens live in an in-memory index keyed by token, so validating
+ * one is a hash lookup. Every token is written through to
+ * {@code verification_tokens} before it becomes visible in memory, and the
+ * index is reloaded from the table at startup. Expiry is driven by a
+ * {@link HierarchicalTimingWheel}: each tick removes the tokens that expired
+ * and, only when there were any, purges the table with one range delete.
+ * <p>
+ * A token missing from memory (issued on another node) falls back to a
+ * primary-key lookup so validation stays correct when running several pods.
+ */
+@ApplicationScoped
+public class VerificationTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(VerificationTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Inject
+    VerificationTokenRepository verificationTokenRepository;
+
+    @ConfigProperty(name = "app.verification.token-ttl", defaultValue = "PT24H")
+    Duration tokenTtl;
+
+    @ConfigProperty(name = "app.verification.wheel-tick-millis", defaultValue = "1000")
+    long wheelTickMillis;
+
+    private final ConcurrentMap<String, Outstanding> tokens = new ConcurrentHashMap<>();
+    private volatile HierarchicalTimingWheel<String> wheel;
+
+    @Transactional
+    void onStart(@Observes StartupEvent ev) {
+        long now = System.currentTimeMillis();
+        wheel = new HierarchicalTimingWheel<>(wheelTickMillis, 4, now);
+        OffsetDateTime nowUtc = toOffset(now);
+        long purged = verificationTokenRepository.deleteExpired(nowUtc);
+        try (Stream<VerificationToken> outstanding = verificationTokenRepository.streamOutstanding(nowUtc)) {
+            outstanding.forEach(t -> track(t.getId().getToken(), t.getId().getIdentifier(),
+                    t.getExpires().toInstant().toEpochMilli()));
+        }
+        logger.info("Loaded {} outstanding verification tokens, purged {} expired", tokens.size(), purged);
+    }
+
+    /**
+     * Creates a token for {@code identifier} (the user's email) using the
+     * configured TTL. The row is committed before the token is returned.
+     */
+    public String issue(String identifier) {
+        return issue(identifier, tokenTtl);
+    }
+
+    public String issue(String identifier, Duration ttl) {
+        String token = newToken();
+        long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+
+        VerificationTokenId id = new VerificationTokenId();
+        id.setIdentifier(identifier);
+        id.setToken(token);
+        VerificationToken entity = new VerificationToken();
+        entity.setId(id);
+        entity.setExpires(toOffset(expiresAt));
+        QuarkusTransaction.requiringNew().run(() -> verificationTokenRepository.persist(entity));
+
+        track(token, identifier, expiresAt);
+        return token;
+    }
+
+    /**
+     * Validates and consumes a token. Returns {@code false} if the token is
+     * unknown, expired, already used or belongs to another identifier.
+     */
+    public boolean consume(String identifier, String token) {
+        if (identifier == null || token == null) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Outstanding outstanding = tokens.get(token);
+        if (outstanding == null) {
+            return consumeFromDatabase(identifier, token, now);
+        }
+        if (!outstanding.identifier().equals(identifier) || outstanding.expiresAt() <= now) {
+            return false;
+        }
+        if (!tokens.remove(token, outstanding)) {
+            // Lost the race against a concurrent consume or expiry
+            return false;
+        }
+        synchronized (this) {
+            wheel.cancel(token);
+        }
+        // The row is the source of truth: another node may have consumed it while this one still had it in memory
+        return QuarkusTransaction.requiringNew().call(
+                () -> verificationTokenRepository.deleteByIdentifierAndToken(identifier, token));
+    }
+
+    private boolean consumeFromDatabase(String identifier, String token, long now) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            VerificationToken stored = verificationTokenRepository.findByIdentifierAndToken(identifier, token);
+            if (stored == null || stored.getExpires().toInstant().toEpochMilli() <= now) {
+                return false;
+            }
+            return verificationTokenRepository.deleteByIdentifierAndToken(identifier, token);
+        });
+    }
+
+    @Scheduled(every = "${app.verification.purge-interval:1s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void tick() {
+        if (wheel == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> expired;
+        synchronized (this) {
+            expired = wheel.advance(now);
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        expired.forEach(tokens::remove);
+        long deleted = QuarkusTransaction.requiringNew()
+                .call(() -> verificationTokenRepository.deleteExpired(toOffset(now)));
+        logger.debug("Expired {} verification tokens, deleted {} rows", expired.size(), deleted);
+    }
+
+    private void track(String token, String identifier, long expiresAt) {
+        tokens.put(token, new Outstanding(identifier, expiresAt));
+        boolean scheduled;
+        synchronized (this) {
+            scheduled = wheel.schedule(token, expiresAt);
+        }
+        if (!scheduled) {
+            tokens.remove(token);
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static OffsetDateTime toOffset(long epochMillis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private record Outstanding(String identifier, long expiresAt) {}
+}
@@ -0,0 +1,112 @@
+package dereck.angeles.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * <p>
+ * Answers "definitely absent" or "possibly present". Bits are kept in an
+ * {@link AtomicLongArray} so concurrent {@link #put(String)} calls never lose
+ * writes, and the k probe positions are derived from one 64-bit hash using
+ * double hashing (Kirsch–Mitzenmacher) in 64-bit arithmetic, so filters
+ * larger than 2^32 bits are probed across their whole range.
+ */
+public final class BloomFilter {
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+
+	private BloomFilter(long bitCount, int hashCount) {
+		int words = (int) Math.max(1, (bitCount + 63) >>> 6);
+		this.bits = new AtomicLongArray(words);
+		this.bitCount = (long) words << 6;
+		this.hashCount = hashCount;
+	}
+
+	/**
+	 * Sizes a filter for the expected number of insertions and target
+	 * false-positive probability.
+	 */
+	public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+		}
+		long n = Math.max(1, expectedInsertions);
+		double ln2 = Math.log(2);
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+		int k = Math.max(1, (int) Math.round((double) m / n * ln2));
+		if (m > (long) Integer.MAX_VALUE << 6) {
+			throw new IllegalArgumentException("Bloom filter too large: " + m + " bits");
+		}
+		return new BloomFilter(m, k);
+	}
+
+	public void put(String value) {
+		long hash = hash64(value);
+		long step = step(hash);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = Math.floorMod(hash + i * step, bitCount);
+			int word = (int) (index >>> 6);
+			long mask = 1L << index;
+			long current = bits.get(word);
+			while ((current & mask) == 0) {
+				if (bits.compareAndSet(word, current, current | mask)) {
+					break;
+				}
+				current = bits.get(word);
+			}
+		}
+	}
+
+	public boolean mightContain(String value) {
+		long hash = hash64(value);
+		long step = step(hash);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = Math.floorMod(hash + i * step, bitCount);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long bitSize() {
+		return bitCount;
+	}
+
+	public int hashCount() {
+		return hashCount;
+	}
+
+	/**
+	 * Second hash for double hashing, mixed again from the first. Odd, so it
+	 * is never a multiple of the filter size (a multiple of 64) and the k
+	 * probes never collapse onto one bit.
+	 */
+	private static long step(long hash) {
+		long h = hash ^ 0x9e3779b97f4a7c15L;
+		h *= 0xbf58476d1ce4e5b9L;
+		h ^= h >>> 31;
+		return h | 1;
+	}
+
+	/**
+	 * FNV-1a over the UTF-8 bytes followed by a murmur3 finalizer so both
+	 * 32-bit halves are well mixed.
+	 */
+	private static long hash64(String value) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+			h ^= (b & 0xff);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,321 @@
+package dereck.angeles.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compressed bitmap of non-negative ints, laid out like a Roaring bitmap.
+ * <p>
+ * Values are split on their high 16 bits into containers. A container holds
+ * its low 16 bits either as a sorted {@code char[]} (up to 4096 values) or as
+ * a 65536-bit {@code long[]} once it is denser than that, so sparse and dense
+ * ranges both stay compact. Lookups are a binary search over container keys
+ * followed by a binary search or a bit test.
+ * <p>
+ * Not thread-safe; share instances only after they stop changing (see
+ * {@link #copy()}).
+ */
+public final class CompressedBitmap {
+
+	private static final int ARRAY_MAX = 4096;
+	private static final int BITMAP_WORDS = 1024;
+	private static final byte ARRAY = 0;
+	private static final byte BITMAP = 1;
+	private static final int FORMAT_VERSION = 1;
+
+	private char[] keys = new char[0];
+	private Container[] containers = new Container[0];
+	private int size;
+
+	public boolean contains(int value) {
+		if (value < 0) {
+			return false;
+		}
+		int at = indexOf((char) (value >>> 16));
+		return at >= 0 && containers[at].contains((char) value);
+	}
+
+	/**
+	 * @return {@code true} if the value was not present before
+	 */
+	public boolean add(int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Negative value: " + value);
+		}
+		char key = (char) (value >>> 16);
+		int at = indexOf(key);
+		if (at < 0) {
+			at = -at - 1;
+			insertContainer(at, key, new ArrayContainer());
+		}
+		Container container = containers[at];
+		if (!container.add((char) value)) {
+			return false;
+		}
+		if (container instanceof ArrayContainer array && array.cardinality > ARRAY_MAX) {
+			containers[at] = array.toBitmap();
+		}
+		return true;
+	}
+
+	/**
+	 * Adds every value of {@code other} to this bitmap.
+	 */
+	public void or(CompressedBitmap other) {
+		for (int i = 0; i < other.size; i++) {
+			int high = other.keys[i] << 16;
+			other.containers[i].forEach(low -> add(high | low));
+		}
+	}
+
+	public long cardinality() {
+		long total = 0;
+		for (int i = 0; i < size; i++) {
+			total += containers[i].cardinality();
+		}
+		return total;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public CompressedBitmap copy() {
+		CompressedBitmap copy = new CompressedBitmap();
+		copy.keys = Arrays.copyOf(keys, size);
+		copy.containers = new Container[size];
+		for (int i = 0; i < size; i++) {
+			copy.containers[i] = containers[i].copy();
+		}
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * Serializes to a compact byte array: a version and container count,
+	 * then per container its key, type and payload.
+	 */
+	public byte[] toBytes() {
+		int length = 8;
+		for (int i = 0; i < size; i++) {
+			length += 2 + 1 + 4 + containers[i].payloadBytes();
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.putInt(FORMAT_VERSION).putInt(size);
+		for (int i = 0; i < size; i++) {
+			buffer.putChar(keys[i]);
+			containers[i].write(buffer);
+		}
+		return buffer.array();
+	}
+
+	public static CompressedBitmap fromBytes(byte[] bytes) {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		if (bytes == null || bytes.length == 0) {
+			return bitmap;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			int version = buffer.getInt();
+			if (version != FORMAT_VERSION) {
+				throw new IllegalArgumentException("Unsupported bitmap format: " + version);
+			}
+			int count = buffer.getInt();
+			bitmap.keys = new char[count];
+			bitmap.containers = new Container[count];
+			for (int i = 0; i < count; i++) {
+				bitmap.keys[i] = buffer.getChar();
+				byte type = buffer.get();
+				int cardinality = buffer.getInt();
+				if (type == ARRAY) {
+					char[] values = new char[Math.max(cardinality, 4)];
+					buffer.asCharBuffer().get(values, 0, cardinality);
+					buffer.position(buffer.position() + cardinality * 2);
+					bitmap.containers[i] = new ArrayContainer(values, cardinality);
+				} else if (type == BITMAP) {
+					long[] words = new long[BITMAP_WORDS];
+					buffer.asLongBuffer().get(words);
+					buffer.position(buffer.position() + BITMAP_WORDS * 8);
+					bitmap.containers[i] = new BitmapContainer(words, cardinality);
+				} else {
+					throw new IllegalArgumentException("Unknown container type: " + type);
+				}
+			}
+			bitmap.size = count;
+			return bitmap;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated bitmap", e);
+		}
+	}
+
+	private int indexOf(char key) {
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	private void insertContainer(int at, char key, Container container) {
+		if (size == keys.length) {
+			int capacity = Math.max(4, size * 2);
+			keys = Arrays.copyOf(keys, capacity);
+			containers = Arrays.copyOf(containers, capacity);
+		}
+		System.arraycopy(keys, at, keys, at + 1, size - at);
+		System.arraycopy(containers, at, containers, at + 1, size - at);
+		keys[at] = key;
+		containers[at] = container;
+		size++;
+	}
+
+	private interface LowConsumer {
+		void accept(int low);
+	}
+
+	private abstract static class Container {
+		abstract boolean contains(char low);
+
+		abstract boolean add(char low);
+
+		abstract int cardinality();
+
+		abstract void forEach(LowConsumer consumer);
+
+		abstract Container copy();
+
+		abstract int payloadBytes();
+
+		abstract void write(ByteBuffer buffer);
+	}
+
+	private static final class ArrayContainer extends Container {
+		char[] values;
+		int cardinality;
+
+		ArrayContainer() {
+			this(new char[4], 0);
+		}
+
+		ArrayContainer(char[] values, int cardinality) {
+			this.values = values;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		boolean contains(char low) {
+			return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+		}
+
+		@Override
+		boolean add(char low) {
+			int at = Arrays.binarySearch(values, 0, cardinality, low);
+			if (at >= 0) {
+				return false;
+			}
+			at = -at - 1;
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, cardinality * 2);
+			}
+			System.arraycopy(values, at, values, at + 1, cardinality - at);
+			values[at] = low;
+			cardinality++;
+			return true;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		void forEach(LowConsumer consumer) {
+			for (int i = 0; i < cardinality; i++) {
+				consumer.accept(values[i]);
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)), cardinality);
+		}
+
+		@Override
+		int payloadBytes() {
+			return cardinality * 2;
+		}
+
+		@Override
+		void write(ByteBuffer buffer) {
+			buffer.put(ARRAY).putInt(cardinality);
+			for (int i = 0; i < cardinality; i++) {
+				buffer.putChar(values[i]);
+			}
+		}
+
+		BitmapContainer toBitmap() {
+			long[] words = new long[BITMAP_WORDS];
+			for (int i = 0; i < cardinality; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			return new BitmapContainer(words, cardinality);
+		}
+	}
+
+	private static final class BitmapContainer extends Container {
+		final long[] words;
+		int cardinality;
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		boolean contains(char low) {
+			return (words[low >>> 6] & (1L << low)) != 0;
+		}
+
+		@Override
+		boolean add(char low) {
+			long mask = 1L << low;
+			if ((words[low >>> 6] & mask) != 0) {
+				return false;
+			}
+			words[low >>> 6] |= mask;
+			cardinality++;
+			return true;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		void forEach(LowConsumer consumer) {
+			for (int w = 0; w < BITMAP_WORDS; w++) {
+				long word = words[w];
+				while (word != 0) {
+					consumer.accept((w << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		int payloadBytes() {
+			return BITMAP_WORDS * 8;
+		}
+
+		@Override
+		void write(ByteBuffer buffer) {
+			buffer.put(BITMAP).putInt(cardinality);
+			for (long word : words) {
+				buffer.putLong(word);
+			}
+		}
+	}
+}
@@ -0,0 +1,172 @@
+package dereck.angeles.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel for expiring keys.
+ * <p>
+ * Level {@code l} has 64 slots, each spanning {@code 64^l} ticks, so four
+ * levels cover {@code 64^4} ticks (about 194 days at one-second ticks).
+ * Scheduling and cancelling are O(1); advancing costs O(expired) plus the
+ * occasional cascade of one higher-level slot into the lower levels, which is
+ * the same scheme the Linux kernel used for its timer wheel. Deadlines beyond
+ * the wheel range are parked in the top level and re-placed on cascade.
+ * <p>
+ * Not thread-safe; callers serialize access.
+ *
+ * @param <K> key type; keys are unique within the wheel
+ */
+public final class HierarchicalTimingWheel<K> {
+
+	private static final int BITS = 6;
+	private static final int SLOTS = 1 << BITS;
+	private static final int MASK = SLOTS - 1;
+
+	private final long tickMillis;
+	private final int levels;
+	private final long maxSpan;
+	private final List<Map<K, Entry<K>>[]> wheel;
+	private final Map<K, Entry<K>> index = new HashMap<>();
+	private long currentTick;
+
+	public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+		if (tickMillis <= 0 || levels < 1 || levels * BITS > 60) {
+			throw new IllegalArgumentException("Invalid timing wheel configuration");
+		}
+		this.tickMillis = tickMillis;
+		this.levels = levels;
+		this.maxSpan = 1L << (BITS * levels);
+		this.currentTick = startMillis / tickMillis;
+		this.wheel = new ArrayList<>(levels);
+		for (int l = 0; l < levels; l++) {
+			@SuppressWarnings("unchecked")
+			Map<K, Entry<K>>[] slots = new Map[SLOTS];
+			for (int s = 0; s < SLOTS; s++) {
+				slots[s] = new LinkedHashMap<>();
+			}
+			wheel.add(slots);
+		}
+	}
+
+	/**
+	 * Schedules {@code key} to expire at {@code deadlineMillis}, replacing any
+	 * previous deadline for the same key.
+	 *
+	 * @return {@code false} if the deadline has already passed, in which case
+	 * the key is not scheduled
+	 */
+	public boolean schedule(K key, long deadlineMillis) {
+		cancel(key);
+		// Round up so a key never expires before its deadline
+		long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+		if (deadlineTick <= currentTick) {
+			return false;
+		}
+		Entry<K> entry = new Entry<>(key, deadlineTick);
+		index.put(key, entry);
+		place(entry);
+		return true;
+	}
+
+	public boolean cancel(K key) {
+		Entry<K> entry = index.remove(key);
+		if (entry == null) {
+			return false;
+		}
+		wheel.get(entry.level)[entry.slot].remove(key);
+		return true;
+	}
+
+	public boolean contains(K key) {
+		return index.containsKey(key);
+	}
+
+	public int size() {
+		return index.size();
+	}
+
+	/**
+	 * Advances the wheel to {@code nowMillis} and returns every key whose
+	 * deadline was reached.
+	 */
+	public List<K> advance(long nowMillis) {
+		long targetTick = nowMillis / tickMillis;
+		List<K> expired = new ArrayList<>();
+		while (currentTick < targetTick) {
+			if (index.isEmpty()) {
+				// Nothing to cascade or expire, jump straight to the target
+				currentTick = targetTick;
+				break;
+			}
+			currentTick++;
+			cascade(expired);
+			Map<K, Entry<K>> slot = wheel.get(0)[(int) (currentTick & MASK)];
+			if (!slot.isEmpty()) {
+				for (K key : slot.keySet()) {
+					index.remove(key);
+					expired.add(key);
+				}
+				slot.clear();
+			}
+		}
+		return expired;
+	}
+
+	private void cascade(List<K> expired) {
+		for (int l = 1; l < levels; l++) {
+			long span = 1L << (BITS * l);
+			if ((currentTick & (span - 1)) != 0) {
+				return;
+			}
+			Map<K, Entry<K>> slot = wheel.get(l)[(int) ((currentTick >>> (BITS * l)) & MASK)];
+			if (slot.isEmpty()) {
+				continue;
+			}
+			List<Entry<K>> moving = new ArrayList<>(slot.values());
+			slot.clear();
+			for (Entry<K> entry : moving) {
+				if (entry.deadlineTick <= currentTick) {
+					index.remove(entry.key);
+					expired.add(entry.key);
+				} else {
+					place(entry);
+				}
+			}
+		}
+	}
+
+	private void place(Entry<K> entry) {
+		long delta = entry.deadlineTick - currentTick;
+		long placedTick = entry.deadlineTick;
+		int level = 0;
+		if (delta >= maxSpan) {
+			// Out of range: park in the top level and re-place when it cascades
+			level = levels - 1;
+			placedTick = currentTick + maxSpan - 1;
+		} else {
+			while (delta >= 1L << (BITS * (level + 1))) {
+				level++;
+			}
+		}
+		int slot = (int) ((placedTick >>> (BITS * level)) & MASK);
+		entry.level = level;
+		entry.slot = slot;
+		wheel.get(level)[slot].put(entry.key, entry);
+	}
+
+	private static final class Entry<K> {
+		final K key;
+		final long deadlineTick;
+		int level;
+		int slot;
+
+		Entry(K key, long deadlineTick) {
+			this.key = key;
+			this.deadlineTick = deadlineTick;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package dereck.angeles.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Aho–Corasick automaton that finds every keyword of a fixed dictionary in
+ * one pass over a text.
+ * <p>
+ * The trie's goto and failure links are compiled into a single transition
+ * table over ASCII, so scanning costs one array lookup per character however
+ * many keywords there are; a character outside ASCII returns to the root.
+ * Matching is case-insensitive unless a keyword was added with
+ * {@code matchCase}, a run of whitespace in the text matches one space in a
+ * keyword, and keywords only match whole words: a keyword that starts with
+ * a letter or digit must not follow one, and a keyword that ends with one
+ * must not be followed by a letter, so {@code Java} is not found in
+ * {@code JavaScript} but {@code HTML} is found in {@code HTML5}.
+ * <p>
+ * Immutable and thread-safe once built.
+ *
+ * @param <T> value reported for a matched keyword; several keywords may map
+ *            to the same value
+ */
+public final class KeywordAutomaton<T> {
+
+	private static final int ALPHABET = 128;
+
+	// transitions[state * ALPHABET + c] is the next state; state 0 is the root
+	private final int[] transitions;
+	// Keywords ending at each state, including those reached through failure links
+	private final int[][] outputs;
+	private final String[] keywords;
+	private final boolean[] matchCase;
+	private final List<T> values;
+
+	private KeywordAutomaton(int[] transitions, int[][] outputs, String[] keywords, boolean[] matchCase,
+													 List<T> values) {
+		this.transitions = transitions;
+		this.outputs = outputs;
+		this.keywords = keywords;
+		this.matchCase = matchCase;
+		this.values = values;
+	}
+
+	public static <T> Builder<T> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Returns the values of all keywords found in {@code text}, without
+	 * duplicates, in the order their first occurrence ends.
+	 */
+	public List<T> findAll(CharSequence text) {
+		char[] chars = collapseWhitespace(text);
+		Set<T> found = new LinkedHashSet<>();
+		int state = 0;
+		for (int i = 0; i < chars.length; i++) {
+			char c = Character.toLowerCase(chars[i]);
+			state = c < ALPHABET ? transitions[state * ALPHABET + c] : 0;
+			for (int keyword : outputs[state]) {
+				if (matchesAt(keyword, chars, i)) {
+					found.add(values.get(keyword));
+				}
+			}
+		}
+		return List.copyOf(found);
+	}
+
+	public int size() {
+		return keywords.length;
+	}
+
+	private boolean matchesAt(int keyword, char[] chars, int end) {
+		String word = keywords[keyword];
+		int start = end - word.length() + 1;
+		if (Character.isLetterOrDigit(word.charAt(0)) && start > 0
+					&& Character.isLetterOrDigit(chars[start - 1])) {
+			return false;
+		}
+		if (Character.isLetterOrDigit(word.charAt(word.length() - 1)) && end + 1 < chars.length
+					&& Character.isLetter(chars[end + 1])) {
+			return false;
+		}
+		if (matchCase[keyword]) {
+			for (int i = 0; i < word.length(); i++) {
+				if (chars[start + i] != word.charAt(i)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private static char[] collapseWhitespace(CharSequence text) {
+		char[] chars = new char[text.length()];
+		int length = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				if (length > 0 && chars[length - 1] == ' ') {
+					continue;
+				}
+				c = ' ';
+			}
+			chars[length++] = c;
+		}
+		return length == chars.length ? chars : Arrays.copyOf(chars, length);
+	}
+
+	public static final class Builder<T> {
+
+		private final List<String> keywords = new ArrayList<>();
+		private final List<Boolean> matchCase = new ArrayList<>();
+		private final List<T> values = new ArrayList<>();
+
+		private Builder() {
+		}
+
+		public Builder<T> add(String keyword, T value) {
+			return add(keyword, value, false);
+		}
+
+		/**
+		 * @param matchCase {@code true} to only match the keyword as written,
+		 *                  e.g. for short words that are also common English
+		 */
+		public Builder<T> add(String keyword, T value, boolean matchCase) {
+			String normalized = new String(collapseWhitespace(keyword.strip()));
+			if (normalized.isEmpty()) {
+				throw new IllegalArgumentException("Keyword must not be blank");
+			}
+			for (int i = 0; i < normalized.length(); i++) {
+				if (normalized.charAt(i) >= ALPHABET) {
+					throw new IllegalArgumentException("Keyword is not ASCII: " + keyword);
+				}
+			}
+			keywords.add(normalized);
+			this.matchCase.add(matchCase);
+			values.add(value);
+			return this;
+		}
+
+		public KeywordAutomaton<T> build() {
+			// Trie; a missing child is -1 until the failure links fill it in
+			List<int[]> children = new ArrayList<>();
+			List<List<Integer>> ends = new ArrayList<>();
+			children.add(newNode());
+			ends.add(new ArrayList<>());
+			for (int k = 0; k < keywords.size(); k++) {
+				String word = keywords.get(k).toLowerCase(Locale.ROOT);
+				int state = 0;
+				for (int i = 0; i < word.length(); i++) {
+					int c = word.charAt(i);
+					if (children.get(state)[c] < 0) {
+						children.get(state)[c] = children.size();
+						children.add(newNode());
+						ends.add(new ArrayList<>());
+					}
+					state = children.get(state)[c];
+				}
+				ends.get(state).add(k);
+			}
+
+			int states = children.size();
+			int[] transitions = new int[states * ALPHABET];
+			int[] failure = new int[states];
+			int[][] outputs = new int[states][];
+			outputs[0] = toArray(ends.get(0));
+			Queue<Integer> queue = new ArrayDeque<>();
+			for (int c = 0; c < ALPHABET; c++) {
+				int child = children.get(0)[c];
+				if (child < 0) {
+					transitions[c] = 0;
+				} else {
+					transitions[c] = child;
+					failure[child] = 0;
+					queue.add(child);
+				}
+			}
+			// Breadth-first, so a state's failure target is complete before the state itself
+			while (!queue.isEmpty()) {
+				int state = queue.poll();
+				List<Integer> out = new ArrayList<>(ends.get(state));
+				for (int k : outputs[failure[state]]) {
+					out.add(k);
+				}
+				outputs[state] = toArray(out);
+				for (int c = 0; c < ALPHABET; c++) {
+					int child = children.get(state)[c];
+					if (child < 0) {
+						transitions[state * ALPHABET + c] = transitions[failure[state] * ALPHABET + c];
+					} else {
+						transitions[state * ALPHABET + c] = child;
+						failure[child] = transitions[failure[state] * ALPHABET + c];
+						queue.add(child);
+					}
+				}
+			}
+
+			boolean[] caseFlags = new boolean[keywords.size()];
+			for (int k = 0; k < caseFlags.length; k++) {
+				caseFlags[k] = matchCase.get(k);
+			}
+			return new KeywordAutomaton<>(transitions, outputs, keywords.toArray(String[]::new), caseFlags,
+																		List.copyOf(values));
+		}
+
+		private static int[] newNode() {
+			int[] node = new int[ALPHABET];
+			Arrays.fill(node, -1);
+			return node;
+		}
+
+		private static int[] toArray(List<Integer> list) {
+			return list.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+}
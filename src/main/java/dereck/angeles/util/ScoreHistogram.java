@@ -0,0 +1,168 @@
+package dereck.angeles.util;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Mergeable distribution of integer scores in {@code [0, 100]}.
+ * <p>
+ * With only 101 possible values a histogram with one counter per score is
+ * an exact quantile sketch: merging two histograms adds their counters, so
+ * partial histograms from any number of nodes combine without loss, and
+ * ranks and quantiles are a scan over at most 101 counters. Counters may go
+ * negative in a delta that removes scores; ranks and quantiles treat negative
+ * counters as zero.
+ * <p>
+ * Not thread-safe; share instances only after they stop changing (see
+ * {@link #copy()}).
+ */
+public final class ScoreHistogram {
+
+	public static final int MAX_SCORE = 100;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private final long[] counts = new long[MAX_SCORE + 1];
+
+	public void record(int score) {
+		record(score, 1);
+	}
+
+	/**
+	 * Removes one occurrence of {@code score}; used to build deltas for
+	 * replaced scores.
+	 */
+	public void remove(int score) {
+		record(score, -1);
+	}
+
+	/**
+	 * Adds {@code count} occurrences of {@code score}.
+	 */
+	public void record(int score, long count) {
+		if (score < 0 || score > MAX_SCORE) {
+			throw new IllegalArgumentException("Score out of range: " + score);
+		}
+		counts[score] += count;
+	}
+
+	/**
+	 * Adds every counter of {@code other} to this histogram.
+	 */
+	public void merge(ScoreHistogram other) {
+		for (int score = 0; score <= MAX_SCORE; score++) {
+			counts[score] += other.counts[score];
+		}
+	}
+
+	/**
+	 * Resets negative counters, left by deltas that removed scores this
+	 * histogram never had, to zero.
+	 */
+	public void clampNegative() {
+		for (int score = 0; score <= MAX_SCORE; score++) {
+			counts[score] = Math.max(0, counts[score]);
+		}
+	}
+
+	public long total() {
+		long total = 0;
+		for (long count : counts) {
+			total += Math.max(0, count);
+		}
+		return total;
+	}
+
+	public boolean isEmpty() {
+		for (long count : counts) {
+			if (count != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fraction of recorded scores strictly below {@code score}, in
+	 * {@code [0, 1]}; {@code 0} when nothing was recorded.
+	 */
+	public double rankBelow(int score) {
+		long below = 0;
+		long total = 0;
+		for (int s = 0; s <= MAX_SCORE; s++) {
+			long count = Math.max(0, counts[s]);
+			if (s < score) {
+				below += count;
+			}
+			total += count;
+		}
+		return total == 0 ? 0 : (double) below / total;
+	}
+
+	/**
+	 * Smallest score such that at least {@code q} of the recorded scores are
+	 * less than or equal to it, or {@code -1} when nothing was recorded.
+	 */
+	public int quantile(double q) {
+		long total = total();
+		if (total == 0) {
+			return -1;
+		}
+		long target = Math.max(1, (long) Math.ceil(Math.min(Math.max(q, 0), 1) * total));
+		long seen = 0;
+		for (int score = 0; score <= MAX_SCORE; score++) {
+			seen += Math.max(0, counts[score]);
+			if (seen >= target) {
+				return score;
+			}
+		}
+		return MAX_SCORE;
+	}
+
+	public ScoreHistogram copy() {
+		ScoreHistogram copy = new ScoreHistogram();
+		System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+		return copy;
+	}
+
+	/**
+	 * Serializes the non-zero counters as {@code (score, count)} pairs.
+	 */
+	public byte[] toBytes() {
+		int nonZero = 0;
+		for (long count : counts) {
+			if (count != 0) {
+				nonZero++;
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8 + nonZero * 9);
+		buffer.putInt(FORMAT_VERSION).putInt(nonZero);
+		for (int score = 0; score <= MAX_SCORE; score++) {
+			if (counts[score] != 0) {
+				buffer.put((byte) score).putLong(counts[score]);
+			}
+		}
+		return buffer.array();
+	}
+
+	public static ScoreHistogram fromBytes(byte[] bytes) {
+		ScoreHistogram histogram = new ScoreHistogram();
+		if (bytes == null || bytes.length == 0) {
+			return histogram;
+		}
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			int version = buffer.getInt();
+			if (version != FORMAT_VERSION) {
+				throw new IllegalArgumentException("Unsupported histogram format: " + version);
+			}
+			int entries = buffer.getInt();
+			for (int i = 0; i < entries; i++) {
+				histogram.record(buffer.get() & 0xFF, buffer.getLong());
+			}
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated histogram", e);
+		}
+		return histogram;
+	}
+}
@@ -0,0 +1,248 @@
+package dereck.angeles.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory TF-IDF index over short texts with top-k cosine search.
+ * <p>
+ * Terms are lowercase runs of letters and digits (keeping a trailing
+ * {@code +} or {@code #}, as in {@code c++} and {@code c#}); common English
+ * words are dropped. Each term is hashed into one of {@value #FEATURES}
+ * features, so there is no vocabulary to maintain. Weighting is SMART
+ * {@code lnc.ltc}: a document vector is {@code 1 + ln(tf)}, L2-normalized,
+ * without IDF, and the query vector is {@code (1 + ln(tf)) * ln(N / df)},
+ * L2-normalized. Document vectors therefore never change when other
+ * documents are added, which keeps updates incremental; IDF is applied
+ * when a query is scored.
+ * <p>
+ * Vectors are stored as an inverted index of primitive arrays: per feature,
+ * the documents containing it and their weights. A search only visits the
+ * postings of the query's features. Readers never lock: postings are
+ * immutable and replaced atomically. Writes are serialized and copy only the
+ * postings they touch.
+ */
+public final class TermVectorIndex {
+
+	public static final int FEATURES = 1 << 18;
+
+	private static final Set<String> STOP_WORDS = Set.of(
+				"a", "an", "and", "are", "as", "at", "be", "by", "can", "do", "does", "for", "from", "how",
+				"i", "if", "in", "into", "is", "it", "its", "of", "on", "or", "that", "the", "their", "this",
+				"to", "was", "we", "what", "when", "where", "which", "while", "who", "why", "will", "with",
+				"would", "you", "your");
+
+	/**
+	 * A search result; {@code score} is the cosine similarity in {@code [0, 1]}.
+	 */
+	public record Hit(int doc, float score) {
+	}
+
+	private record Postings(int[] docs, float[] weights) {
+	}
+
+	private static final Postings NONE = new Postings(new int[0], new float[0]);
+
+	private final AtomicReferenceArray<Postings> postings = new AtomicReferenceArray<>(FEATURES);
+	// Features of each document, to remove it again
+	private final Map<Integer, int[]> features = new ConcurrentHashMap<>();
+	private volatile int maxDoc = -1;
+
+	/**
+	 * Indexes {@code text} as document {@code doc}, replacing any earlier
+	 * text of that document.
+	 *
+	 * @param doc non-negative document id, e.g. a dense ordinal
+	 */
+	public synchronized void put(int doc, CharSequence text) {
+		if (doc < 0) {
+			throw new IllegalArgumentException("Document id must not be negative: " + doc);
+		}
+		remove(doc);
+		Map<Integer, Integer> counts = termCounts(text);
+		if (counts.isEmpty()) {
+			return;
+		}
+		int[] docFeatures = new int[counts.size()];
+		float[] weights = new float[counts.size()];
+		double norm = 0;
+		int i = 0;
+		for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+			docFeatures[i] = entry.getKey();
+			weights[i] = (float) (1 + Math.log(entry.getValue()));
+			norm += weights[i] * weights[i];
+			i++;
+		}
+		float scale = (float) (1 / Math.sqrt(norm));
+		for (i = 0; i < docFeatures.length; i++) {
+			Postings current = postingsOf(docFeatures[i]);
+			int n = current.docs().length;
+			int[] docs = Arrays.copyOf(current.docs(), n + 1);
+			float[] docWeights = Arrays.copyOf(current.weights(), n + 1);
+			docs[n] = doc;
+			docWeights[n] = weights[i] * scale;
+			postings.set(docFeatures[i], new Postings(docs, docWeights));
+		}
+		features.put(doc, docFeatures);
+		if (doc > maxDoc) {
+			maxDoc = doc;
+		}
+	}
+
+	public synchronized void remove(int doc) {
+		int[] docFeatures = features.remove(doc);
+		if (docFeatures == null) {
+			return;
+		}
+		for (int feature : docFeatures) {
+			Postings current = postingsOf(feature);
+			int n = current.docs().length;
+			int at = 0;
+			while (at < n && current.docs()[at] != doc) {
+				at++;
+			}
+			if (at == n) {
+				continue;
+			}
+			if (n == 1) {
+				postings.set(feature, null);
+				continue;
+			}
+			int[] docs = new int[n - 1];
+			float[] weights = new float[n - 1];
+			System.arraycopy(current.docs(), 0, docs, 0, at);
+			System.arraycopy(current.docs(), at + 1, docs, at, n - at - 1);
+			System.arraycopy(current.weights(), 0, weights, 0, at);
+			System.arraycopy(current.weights(), at + 1, weights, at, n - at - 1);
+			postings.set(feature, new Postings(docs, weights));
+		}
+	}
+
+	public int size() {
+		return features.size();
+	}
+
+	/**
+	 * Returns up to {@code k} documents most similar to {@code query}, best
+	 * first, skipping documents with no term in common and those for which
+	 * {@code accept} is false.
+	 */
+	public List<Hit> topK(CharSequence query, int k, IntPredicate accept) {
+		int documents = features.size();
+		if (k <= 0 || documents == 0) {
+			return List.of();
+		}
+		Map<Integer, Integer> counts = termCounts(query);
+		List<Postings> matched = new ArrayList<>(counts.size());
+		List<Float> queryWeights = new ArrayList<>(counts.size());
+		double norm = 0;
+		for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+			Postings list = postingsOf(entry.getKey());
+			int df = list.docs().length;
+			if (df == 0 || df >= documents) {
+				// Unknown, or in every document: no discriminating power
+				continue;
+			}
+			double weight = (1 + Math.log(entry.getValue())) * Math.log((double) documents / df);
+			matched.add(list);
+			queryWeights.add((float) weight);
+			norm += weight * weight;
+		}
+		if (matched.isEmpty()) {
+			return List.of();
+		}
+
+		float scale = (float) (1 / Math.sqrt(norm));
+		float[] scores = new float[maxDoc + 1];
+		int[] touched = new int[16];
+		int touchedCount = 0;
+		for (int t = 0; t < matched.size(); t++) {
+			Postings list = matched.get(t);
+			float weight = queryWeights.get(t) * scale;
+			int[] docs = list.docs();
+			float[] weights = list.weights();
+			for (int j = 0; j < docs.length; j++) {
+				int doc = docs[j];
+				if (doc >= scores.length) {
+					// Added after this search started
+					continue;
+				}
+				if (scores[doc] == 0) {
+					if (touchedCount == touched.length) {
+						touched = Arrays.copyOf(touched, touchedCount * 2);
+					}
+					touched[touchedCount++] = doc;
+				}
+				scores[doc] += weight * weights[j];
+			}
+		}
+
+		PriorityQueue<Hit> best = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(a.score(), b.score()));
+		for (int j = 0; j < touchedCount; j++) {
+			int doc = touched[j];
+			float score = scores[doc];
+			if (best.size() == k && score <= best.peek().score()) {
+				continue;
+			}
+			if (!accept.test(doc)) {
+				continue;
+			}
+			best.add(new Hit(doc, Math.min(score, 1f)));
+			if (best.size() > k) {
+				best.poll();
+			}
+		}
+		List<Hit> hits = new ArrayList<>(best);
+		hits.sort((a, b) -> Float.compare(b.score(), a.score()));
+		return hits;
+	}
+
+	private Postings postingsOf(int feature) {
+		Postings list = postings.get(feature);
+		return list == null ? NONE : list;
+	}
+
+	private static Map<Integer, Integer> termCounts(CharSequence text) {
+		Map<Integer, Integer> counts = new HashMap<>();
+		StringBuilder term = new StringBuilder();
+		int length = text.length();
+		int i = 0;
+		while (i < length) {
+			if (!Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+				continue;
+			}
+			term.setLength(0);
+			while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+				term.append(Character.toLowerCase(text.charAt(i++)));
+			}
+			while (i < length && (text.charAt(i) == '+' || text.charAt(i) == '#')) {
+				term.append(text.charAt(i++));
+			}
+			String word = term.toString();
+			if (!STOP_WORDS.contains(word)) {
+				counts.merge(feature(word), 1, Integer::sum);
+			}
+		}
+		return counts;
+	}
+
+	private static int feature(String term) {
+		// MurmurHash3 finalizer, to spread String.hashCode over the low bits
+		int h = term.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+		return h & (FEATURES - 1);
+	}
+}
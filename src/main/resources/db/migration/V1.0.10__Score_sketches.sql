@@ -0,0 +1,14 @@
+-- Score histograms per topic/language/difficulty (ScoreSketchService).
+-- segment_key = topic_id:language_id:difficulty_id ('-' when absent), as in score_aggregates.
+-- Every node adds its local deltas to these rows; fill from existing feedback with
+-- POST /api/admin/stats/rebuild.
+CREATE TABLE IF NOT EXISTS score_sketches
+(
+    segment_key   VARCHAR(120) PRIMARY KEY,
+    topic_id      UUID,
+    language_id   UUID,
+    difficulty_id UUID,
+    technical     BYTEA NOT NULL,
+    non_technical BYTEA NOT NULL,
+    updated_at    TIMESTAMP
+);
@@ -0,0 +1,3 @@
+-- Optimistic locking for interview state changes (InterviewService.transition)
+ALTER TABLE interviews
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
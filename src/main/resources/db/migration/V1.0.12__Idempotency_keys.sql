@@ -0,0 +1,14 @@
+-- Responses of requests sent with an Idempotency-Key header (IdempotencyService).
+-- id = scope:user_id:key. status_code is NULL while the first request is still running;
+-- such a claim expires after a short lease so a crashed node doesn't block retries.
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    id            VARCHAR(400) PRIMARY KEY,
+    user_id       UUID      NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    status_code   INT,
+    response_body TEXT,
+    created_at    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at    TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_expires_idx ON idempotency_keys (expires_at);
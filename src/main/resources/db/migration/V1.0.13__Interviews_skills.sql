@@ -0,0 +1,3 @@
+-- Skills extracted from job_description (SkillExtractionService); NULL for interviews created before
+ALTER TABLE interviews
+    ADD COLUMN IF NOT EXISTS skills TEXT[];
@@ -0,0 +1,11 @@
+-- Generation of score_sketches. A rebuild increments it; deltas recorded under an older
+-- epoch are already part of the rebuilt rows and are discarded instead of persisted.
+CREATE TABLE IF NOT EXISTS score_sketch_epoch
+(
+    id    SMALLINT PRIMARY KEY CHECK (id = 1),
+    epoch BIGINT NOT NULL
+);
+
+INSERT INTO score_sketch_epoch (id, epoch)
+VALUES (1, 0)
+ON CONFLICT (id) DO NOTHING;
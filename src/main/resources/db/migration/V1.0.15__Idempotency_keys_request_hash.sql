@@ -0,0 +1,4 @@
+-- Hash of the request payload an Idempotency-Key was first used with (IdempotencyService);
+-- reusing the key for a different payload is rejected. NULL for rows stored before
+ALTER TABLE idempotency_keys
+    ADD COLUMN IF NOT EXISTS request_hash VARCHAR(64);
@@ -0,0 +1,30 @@
+-- Case-insensitive uniqueness for emails
+-- Registration and login look users up by lower(email); this index makes
+-- both an index probe and rejects duplicates that differ only by case.
+-- Accounts whose emails differ only by case or surrounding whitespace can't
+-- be merged automatically: the migration stops and lists them instead.
+DO
+$$
+    DECLARE
+        collisions TEXT;
+        normalized INTEGER;
+    BEGIN
+        SELECT string_agg(normalized_email, ', ')
+        INTO collisions
+        FROM (SELECT lower(trim(email)) AS normalized_email
+              FROM users
+              WHERE email IS NOT NULL
+              GROUP BY lower(trim(email))
+              HAVING count(*) > 1) duplicates;
+        IF collisions IS NOT NULL THEN
+            RAISE EXCEPTION 'users.email has accounts that differ only by case or whitespace: %. '
+                'Merge or rename them, then re-run the migration.', collisions;
+        END IF;
+
+        UPDATE users SET email = lower(trim(email)) WHERE email <> lower(trim(email));
+        GET DIAGNOSTICS normalized = ROW_COUNT;
+        RAISE NOTICE 'Normalized % user emails to lower case', normalized;
+    END
+$$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_key ON users (lower(email));
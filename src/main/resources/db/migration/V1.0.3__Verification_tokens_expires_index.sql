@@ -0,0 +1,2 @@
+-- Expired verification tokens are purged with one range delete per tick
+CREATE INDEX IF NOT EXISTS verification_tokens_expires_idx ON verification_tokens (expires);
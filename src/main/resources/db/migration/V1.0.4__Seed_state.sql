@@ -0,0 +1,8 @@
+-- Checksum of the last applied reference data seed
+-- DataInitializationService skips seeding when the stored checksum matches.
+CREATE TABLE IF NOT EXISTS seed_state
+(
+    name       VARCHAR(100) PRIMARY KEY,
+    checksum   VARCHAR(64) NOT NULL,
+    applied_at TIMESTAMP
+);
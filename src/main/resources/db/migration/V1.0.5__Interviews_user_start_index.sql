@@ -0,0 +1,2 @@
+-- Seek pagination for interview history: WHERE user_id = ? ORDER BY start_time DESC, id DESC
+CREATE INDEX IF NOT EXISTS interviews_user_start_idx ON interviews (user_id, start_time DESC, id DESC);
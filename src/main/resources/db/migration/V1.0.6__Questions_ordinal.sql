@@ -0,0 +1,3 @@
+-- Dense integer ordinal per question, used by the in-memory question bank index
+ALTER TABLE questions ADD COLUMN IF NOT EXISTS ordinal INTEGER GENERATED BY DEFAULT AS IDENTITY;
+CREATE UNIQUE INDEX IF NOT EXISTS questions_ordinal_idx ON questions (ordinal);
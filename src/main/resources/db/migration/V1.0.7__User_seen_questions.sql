@@ -0,0 +1,9 @@
+-- Per-user set of question ordinals already asked, stored as a compressed bitmap
+-- (see dereck.angeles.util.CompressedBitmap). Replaces the NOT IN anti-join on
+-- interview_questions when picking questions for a new interview.
+CREATE TABLE IF NOT EXISTS user_seen_questions
+(
+    user_id    UUID PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    bitmap     BYTEA NOT NULL,
+    updated_at TIMESTAMP
+);
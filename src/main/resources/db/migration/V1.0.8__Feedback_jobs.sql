@@ -0,0 +1,14 @@
+-- Durable queue of feedback generation jobs, one per completed interview.
+-- Workers claim due jobs with FOR UPDATE SKIP LOCKED, so several nodes can share it.
+CREATE TABLE IF NOT EXISTS feedback_jobs
+(
+    interview_id    UUID PRIMARY KEY REFERENCES interviews (id) ON DELETE CASCADE,
+    status          VARCHAR(20) NOT NULL,
+    attempts        INT         NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error      TEXT,
+    created_at      TIMESTAMP            DEFAULT CURRENT_TIMESTAMP,
+    updated_at      TIMESTAMP            DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS feedback_jobs_due_idx ON feedback_jobs (next_attempt_at) WHERE status = 'QUEUED';
@@ -0,0 +1,59 @@
+-- Running score statistics, maintained when feedback is written (ScoreAggregateService).
+-- dimension = 'USER'    -> dimension_key = user id
+-- dimension = 'SEGMENT' -> dimension_key = topic_id:language_id:difficulty_id ('-' when absent)
+CREATE TABLE IF NOT EXISTS score_aggregates
+(
+    dimension           VARCHAR(20)  NOT NULL,
+    dimension_key       VARCHAR(120) NOT NULL,
+    user_id             UUID,
+    topic_id            UUID,
+    language_id         UUID,
+    difficulty_id       UUID,
+    feedback_count      BIGINT       NOT NULL DEFAULT 0,
+    technical_count     BIGINT       NOT NULL DEFAULT 0,
+    technical_sum       BIGINT       NOT NULL DEFAULT 0,
+    technical_min       INT,
+    technical_max       INT,
+    non_technical_count BIGINT       NOT NULL DEFAULT 0,
+    non_technical_sum   BIGINT       NOT NULL DEFAULT 0,
+    non_technical_min   INT,
+    non_technical_max   INT,
+    would_hire_count    BIGINT       NOT NULL DEFAULT 0,
+    updated_at          TIMESTAMP,
+    PRIMARY KEY (dimension, dimension_key)
+);
+
+-- Backfill from existing feedback
+INSERT INTO score_aggregates (dimension, dimension_key, user_id, topic_id, language_id, difficulty_id,
+                              feedback_count, technical_count, technical_sum, technical_min, technical_max,
+                              non_technical_count, non_technical_sum, non_technical_min, non_technical_max,
+                              would_hire_count, updated_at)
+SELECT 'USER', CAST(i.user_id AS text), i.user_id, NULL, NULL, NULL,
+       COUNT(*), COUNT(f.technical_score), COALESCE(SUM(f.technical_score), 0),
+       MIN(f.technical_score), MAX(f.technical_score),
+       COUNT(f.non_technical_score), COALESCE(SUM(f.non_technical_score), 0),
+       MIN(f.non_technical_score), MAX(f.non_technical_score),
+       COUNT(*) FILTER (WHERE f.would_hire), CURRENT_TIMESTAMP
+FROM feedback f
+         JOIN interviews i ON i.id = f.interview_id
+WHERE i.user_id IS NOT NULL
+GROUP BY i.user_id
+ON CONFLICT DO NOTHING;
+
+INSERT INTO score_aggregates (dimension, dimension_key, user_id, topic_id, language_id, difficulty_id,
+                              feedback_count, technical_count, technical_sum, technical_min, technical_max,
+                              non_technical_count, non_technical_sum, non_technical_min, non_technical_max,
+                              would_hire_count, updated_at)
+SELECT 'SEGMENT',
+       COALESCE(CAST(i.topic_id AS text), '-') || ':' || COALESCE(CAST(i.language_id AS text), '-')
+           || ':' || COALESCE(CAST(i.difficulty_id AS text), '-'),
+       NULL, i.topic_id, i.language_id, i.difficulty_id,
+       COUNT(*), COUNT(f.technical_score), COALESCE(SUM(f.technical_score), 0),
+       MIN(f.technical_score), MAX(f.technical_score),
+       COUNT(f.non_technical_score), COALESCE(SUM(f.non_technical_score), 0),
+       MIN(f.non_technical_score), MAX(f.non_technical_score),
+       COUNT(*) FILTER (WHERE f.would_hire), CURRENT_TIMESTAMP
+FROM feedback f
+         JOIN interviews i ON i.id = f.interview_id
+GROUP BY i.topic_id, i.language_id, i.difficulty_id
+ON CONFLICT DO NOTHING;
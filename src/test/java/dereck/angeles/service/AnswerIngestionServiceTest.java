@@ -0,0 +1,162 @@
+package dereck.angeles.service;
+
+import dereck.angeles.dto.AnswerAckDto;
+import dereck.angeles.dto.AnswerSubmissionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnswerIngestionServiceTest {
+
+    private static final UUID INTERVIEW = UUID.randomUUID();
+    private static final UUID USER = UUID.randomUUID();
+    private static final UUID QUESTION = UUID.randomUUID();
+
+    /**
+     * Replaces the database with a list of committed writes; a write can be
+     * held open or made to fail.
+     */
+    private static final class StubService extends AnswerIngestionService {
+        final List<Map<UUID, String>> written = new ArrayList<>();
+        volatile CountDownLatch writeStarted;
+        volatile CountDownLatch releaseWrite;
+        volatile boolean failNextWrite;
+
+        @Override
+        UUID findOwner(UUID interviewId) {
+            return interviewId.equals(INTERVIEW) ? USER : null;
+        }
+
+        @Override
+        List<UUID> findQuestionIds(UUID interviewId) {
+            return List.of(QUESTION);
+        }
+
+        @Override
+        void writeAnswers(UUID interviewId, Map<UUID, String> answers) {
+            CountDownLatch started = writeStarted;
+            if (started != null) {
+                started.countDown();
+                await(releaseWrite);
+            }
+            if (failNextWrite) {
+                failNextWrite = false;
+                throw new IllegalStateException("database down");
+            }
+            synchronized (written) {
+                written.add(Map.copyOf(answers));
+            }
+        }
+    }
+
+    private StubService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StubService();
+        service.flushThreshold = 50;
+    }
+
+    private AnswerAckDto submit(String answer, long sequence) {
+        return service.submit(INTERVIEW, USER, List.of(new AnswerSubmissionDto(QUESTION, answer, sequence)), false);
+    }
+
+    private String lastWritten() {
+        return service.written.get(service.written.size() - 1).get(QUESTION);
+    }
+
+    @Test
+    void olderSequenceArrivingDuringASlowFlushIsIgnored() throws Exception {
+        submit("five", 5);
+        service.writeStarted = new CountDownLatch(1);
+        service.releaseWrite = new CountDownLatch(1);
+        CompletableFuture<Integer> flushing = CompletableFuture.supplyAsync(() -> service.flush(INTERVIEW));
+        assertTrue(service.writeStarted.await(5, TimeUnit.SECONDS));
+
+        // A retry of an older keystroke while seq 5 is being written
+        AnswerAckDto ack = submit("three", 3);
+        assertEquals(0, ack.accepted());
+        assertEquals(0, ack.pending());
+
+        service.writeStarted = null;
+        service.releaseWrite.countDown();
+        assertEquals(1, flushing.get(5, TimeUnit.SECONDS));
+        assertEquals(0, service.flush(INTERVIEW));
+        assertEquals(List.of(Map.of(QUESTION, "five")), service.written);
+    }
+
+    @Test
+    void newerSequenceArrivingDuringAFlushIsWrittenNext() throws Exception {
+        submit("five", 5);
+        service.writeStarted = new CountDownLatch(1);
+        service.releaseWrite = new CountDownLatch(1);
+        CompletableFuture<Integer> flushing = CompletableFuture.supplyAsync(() -> service.flush(INTERVIEW));
+        assertTrue(service.writeStarted.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, submit("six", 6).accepted());
+
+        service.writeStarted = null;
+        service.releaseWrite.countDown();
+        flushing.get(5, TimeUnit.SECONDS);
+        assertEquals(1, service.flush(INTERVIEW));
+        assertEquals("six", lastWritten());
+    }
+
+    @Test
+    void failedFlushPutsTheAnswersBackUnlessNewerOnesArrived() throws Exception {
+        submit("five", 5);
+        service.failNextWrite = true;
+        service.writeStarted = new CountDownLatch(1);
+        service.releaseWrite = new CountDownLatch(1);
+        CompletableFuture<Integer> flushing = CompletableFuture.supplyAsync(() -> service.flush(INTERVIEW));
+        assertTrue(service.writeStarted.await(5, TimeUnit.SECONDS));
+
+        // Rejected while seq 5 is in flight, so it can't win after the failure either
+        assertEquals(0, submit("four", 4).accepted());
+
+        service.writeStarted = null;
+        service.releaseWrite.countDown();
+        Exception failure = assertThrows(Exception.class, () -> flushing.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+
+        assertEquals(1, service.flush(INTERVIEW));
+        assertEquals("five", lastWritten());
+        // Once written, older sequences stay rejected
+        assertEquals(0, submit("four", 4).accepted());
+    }
+
+    @Test
+    void rejectsAnswersForQuestionsOfOtherInterviews() {
+        AnswerAckDto ack = service.submit(INTERVIEW, USER, List.of(
+                new AnswerSubmissionDto(QUESTION, "mine", 1),
+                new AnswerSubmissionDto(UUID.randomUUID(), "foreign", 1),
+                new AnswerSubmissionDto(null, "missing", 1)), false);
+
+        assertEquals(1, ack.accepted());
+        assertEquals(2, ack.rejected());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.submit(INTERVIEW, UUID.randomUUID(), List.of(), false));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Write was not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dereck.angeles.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+	@Test
+	void neverReportsAnInsertedValueAsAbsent() {
+		BloomFilter filter = BloomFilter.create(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("user" + i + "@example.com");
+		}
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(filter.mightContain("user" + i + "@example.com"), "user" + i);
+		}
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		BloomFilter filter = BloomFilter.create(100, 0.01);
+		assertFalse(filter.mightContain("someone@example.com"));
+		assertFalse(filter.mightContain(""));
+	}
+
+	@Test
+	void sizesBitsAndHashesFromTheStandardFormulas() {
+		// m = ceil(-n ln p / ln^2 2) = 9586, rounded up to whole words; k = round(m / n * ln 2) = 7
+		BloomFilter filter = BloomFilter.create(1_000, 0.01);
+		assertEquals(9_600, filter.bitSize());
+		assertEquals(7, filter.hashCount());
+
+		// A tiny expected size still gets one word and one hash
+		BloomFilter tiny = BloomFilter.create(0, 0.5);
+		assertEquals(64, tiny.bitSize());
+		assertEquals(1, tiny.hashCount());
+	}
+
+	@Test
+	void falsePositiveRateStaysNearTheTarget() {
+		BloomFilter filter = BloomFilter.create(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filter.put("member-" + i);
+		}
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("stranger-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+	}
+
+	@Test
+	void rejectsRatesOutsideTheOpenUnitInterval() {
+		assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+		assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+	}
+}
@@ -0,0 +1,136 @@
+package dereck.angeles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedBitmapTest {
+
+	// Offset of the first container's type byte: version, count, key
+	private static final int FIRST_TYPE = 4 + 4 + 2;
+
+	@Test
+	void addReportsWhetherTheValueIsNew() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		assertTrue(bitmap.isEmpty());
+		assertTrue(bitmap.add(42));
+		assertFalse(bitmap.add(42));
+		assertTrue(bitmap.contains(42));
+		assertFalse(bitmap.contains(43));
+		assertEquals(1, bitmap.cardinality());
+	}
+
+	@Test
+	void handlesContainerBoundariesAndExtremes() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		int[] values = {0, 65_535, 65_536, 131_071, Integer.MAX_VALUE};
+		for (int value : values) {
+			bitmap.add(value);
+		}
+		for (int value : values) {
+			assertTrue(bitmap.contains(value), "contains " + value);
+		}
+		assertFalse(bitmap.contains(1));
+		assertFalse(bitmap.contains(65_537));
+		assertFalse(bitmap.contains(-1));
+		assertEquals(values.length, bitmap.cardinality());
+	}
+
+	@Test
+	void rejectsNegativeValues() {
+		assertThrows(IllegalArgumentException.class, () -> new CompressedBitmap().add(-5));
+	}
+
+	@Test
+	void switchesToABitmapContainerPastFourThousandNinetySixValues() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		for (int i = 0; i < 4096; i++) {
+			bitmap.add(i * 2);
+		}
+		assertEquals(0, bitmap.toBytes()[FIRST_TYPE]);
+
+		bitmap.add(1);
+		assertEquals(1, bitmap.toBytes()[FIRST_TYPE]);
+		assertEquals(4097, bitmap.cardinality());
+		assertTrue(bitmap.contains(1));
+		assertTrue(bitmap.contains(8190));
+		assertFalse(bitmap.contains(3));
+		assertFalse(bitmap.contains(8192));
+		// Adding a present value to a bitmap container changes nothing
+		assertFalse(bitmap.add(8190));
+		assertEquals(4097, bitmap.cardinality());
+	}
+
+	@Test
+	void roundTripsSparseAndDenseContainers() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		for (int i = 0; i < 10_000; i++) {
+			bitmap.add(i);
+		}
+		bitmap.add(200_000);
+		bitmap.add(200_003);
+		bitmap.add(Integer.MAX_VALUE);
+
+		CompressedBitmap read = CompressedBitmap.fromBytes(bitmap.toBytes());
+		assertEquals(bitmap.cardinality(), read.cardinality());
+		for (int i = 0; i < 10_000; i++) {
+			assertTrue(read.contains(i));
+		}
+		assertTrue(read.contains(200_000));
+		assertTrue(read.contains(200_003));
+		assertTrue(read.contains(Integer.MAX_VALUE));
+		assertFalse(read.contains(10_000));
+		assertFalse(read.contains(200_001));
+		assertTrue(Arrays.equals(bitmap.toBytes(), read.toBytes()));
+
+		// A deserialized bitmap keeps accepting values in every container kind
+		assertTrue(read.add(200_001));
+		assertTrue(read.add(10_000));
+		assertTrue(read.add(300_000));
+		assertEquals(bitmap.cardinality() + 3, read.cardinality());
+	}
+
+	@Test
+	void emptyInputReadsAsAnEmptyBitmap() {
+		assertTrue(CompressedBitmap.fromBytes(null).isEmpty());
+		assertTrue(CompressedBitmap.fromBytes(new byte[0]).isEmpty());
+		assertTrue(CompressedBitmap.fromBytes(new CompressedBitmap().toBytes()).isEmpty());
+	}
+
+	@Test
+	void rejectsTruncatedOrUnknownInput() {
+		CompressedBitmap bitmap = new CompressedBitmap();
+		bitmap.add(7);
+		byte[] bytes = bitmap.toBytes();
+		assertThrows(IllegalArgumentException.class,
+								 () -> CompressedBitmap.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+
+		byte[] wrongVersion = bytes.clone();
+		wrongVersion[3] = 9;
+		assertThrows(IllegalArgumentException.class, () -> CompressedBitmap.fromBytes(wrongVersion));
+	}
+
+	@Test
+	void orAddsAllValuesAndCopiesAreIndependent() {
+		CompressedBitmap a = new CompressedBitmap();
+		a.add(1);
+		a.add(70_000);
+		CompressedBitmap b = new CompressedBitmap();
+		for (int i = 0; i < 5000; i++) {
+			b.add(i);
+		}
+
+		CompressedBitmap copy = a.copy();
+		a.or(b);
+		assertEquals(5001, a.cardinality());
+		assertTrue(a.contains(4999));
+		assertTrue(a.contains(70_000));
+		assertEquals(2, copy.cardinality());
+		assertFalse(copy.contains(4999));
+	}
+}
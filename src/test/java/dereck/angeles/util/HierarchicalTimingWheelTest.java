@@ -0,0 +1,148 @@
+package dereck.angeles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+	@Test
+	void expiresAtTheDeadlineAndNotBefore() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 4, 0);
+		assertTrue(wheel.schedule("a", 5000));
+
+		assertEquals(List.of(), wheel.advance(4999));
+		assertTrue(wheel.contains("a"));
+		assertEquals(List.of("a"), wheel.advance(5000));
+		assertFalse(wheel.contains("a"));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void roundsDeadlinesUpToTheNextTick() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 4, 0);
+		wheel.schedule("a", 5001);
+
+		assertEquals(List.of(), wheel.advance(5999));
+		assertEquals(List.of("a"), wheel.advance(6000));
+	}
+
+	@Test
+	void refusesDeadlinesThatHavePassed() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1000, 4, 10_000);
+		assertFalse(wheel.schedule("a", 10_000));
+		assertFalse(wheel.schedule("b", 3_000));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cascadesFromHigherLevelsOnTime() {
+		HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, 3, 0);
+		// Level 1 (64..4095 ticks ahead) and level 2 (4096.. ticks ahead)
+		wheel.schedule(1, 100);
+		wheel.schedule(2, 4095);
+		wheel.schedule(3, 4096);
+		wheel.schedule(4, 70_000);
+
+		for (long now = 1; now <= 70_000; now++) {
+			List<Integer> expired = wheel.advance(now);
+			if (now == 100) {
+				assertEquals(List.of(1), expired);
+			} else if (now == 4095) {
+				assertEquals(List.of(2), expired);
+			} else if (now == 4096) {
+				assertEquals(List.of(3), expired);
+			} else if (now == 70_000) {
+				assertEquals(List.of(4), expired);
+			} else {
+				assertEquals(List.of(), expired, "at tick " + now);
+			}
+		}
+	}
+
+	@Test
+	void parksDeadlinesBeyondTheWheelRange() {
+		// Two levels cover 4096 ticks
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 2, 0);
+		wheel.schedule("far", 10_000);
+
+		assertEquals(List.of(), wheel.advance(9_999));
+		assertEquals(List.of("far"), wheel.advance(10_000));
+	}
+
+	@Test
+	void cancelRemovesTheKeyBeforeAndAfterACascade() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 3, 0);
+		wheel.schedule("early", 100);
+		wheel.schedule("late", 100);
+		assertTrue(wheel.cancel("early"));
+		assertFalse(wheel.cancel("early"));
+
+		// At tick 64 "late" moves from level 1 to level 0
+		assertEquals(List.of(), wheel.advance(64));
+		assertTrue(wheel.cancel("late"));
+		assertEquals(List.of(), wheel.advance(200));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void rescheduleReplacesThePreviousDeadline() {
+		HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 3, 0);
+		wheel.schedule("a", 50);
+		wheel.schedule("a", 5000);
+
+		assertEquals(1, wheel.size());
+		assertEquals(List.of(), wheel.advance(4999));
+		assertEquals(List.of("a"), wheel.advance(5000));
+	}
+
+	@Test
+	void expiresEveryKeyInTheAdvanceThatReachesItsDeadline() {
+		Random random = new Random(42);
+		HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, 3, 0);
+		Map<Integer, Long> deadlines = new HashMap<>();
+		for (int key = 0; key < 5000; key++) {
+			long deadline = 1 + random.nextInt(300_000);
+			deadlines.put(key, deadline);
+			wheel.schedule(key, deadline);
+		}
+		Set<Integer> cancelled = new HashSet<>();
+		for (int key = 0; key < 5000; key += 7) {
+			wheel.cancel(key);
+			cancelled.add(key);
+		}
+
+		long previous = 0;
+		int seen = 0;
+		while (previous < 300_000) {
+			long now = previous + 1 + random.nextInt(5000);
+			for (int key : wheel.advance(now)) {
+				long deadline = deadlines.get(key);
+				assertFalse(cancelled.contains(key), "cancelled key " + key + " expired");
+				assertTrue(deadline > previous && deadline <= now,
+									 "key " + key + " due at " + deadline + " expired in (" + previous + ", " + now + "]");
+				seen++;
+			}
+			previous = now;
+		}
+		assertEquals(5000 - cancelled.size(), seen);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void rejectsInvalidConfigurations() {
+		assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(0, 4, 0));
+		assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(1, 0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<>(1, 11, 0));
+	}
+}
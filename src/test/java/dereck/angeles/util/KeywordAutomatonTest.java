@@ -0,0 +1,75 @@
+package dereck.angeles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeywordAutomatonTest {
+
+	private static final KeywordAutomaton<String> SKILLS = KeywordAutomaton.<String>builder()
+				.add("Java", "java")
+				.add("JavaScript", "javascript")
+				.add("HTML", "html")
+				.add("Go", "go", true)
+				.add("R", "r", true)
+				.add("React Native", "react-native")
+				.add("C++", "cpp")
+				.build();
+
+	@Test
+	void javaIsNotFoundInsideJavaScript() {
+		assertEquals(List.of("javascript"), SKILLS.findAll("Strong JavaScript skills"));
+		assertEquals(List.of("java", "javascript"), SKILLS.findAll("Java and JavaScript"));
+	}
+
+	@Test
+	void keywordMayBeFollowedByDigits() {
+		assertEquals(List.of("html"), SKILLS.findAll("Experience with HTML5 and CSS3"));
+		assertEquals(List.of(), SKILLS.findAll("XHTML only"));
+	}
+
+	@Test
+	void caseSensitiveKeywordsOnlyMatchAsWritten() {
+		assertEquals(List.of("go"), SKILLS.findAll("Backend services in Go"));
+		assertEquals(List.of(), SKILLS.findAll("Ready to go and deliver"));
+		assertEquals(List.of("r"), SKILLS.findAll("Statistics with R or Python"));
+		assertEquals(List.of(), SKILLS.findAll("r u there"));
+	}
+
+	@Test
+	void otherKeywordsIgnoreCase() {
+		assertEquals(List.of("java"), SKILLS.findAll("JAVA developer"));
+		assertEquals(List.of("html"), SKILLS.findAll("html"));
+	}
+
+	@Test
+	void whitespaceRunsMatchOneSpace() {
+		assertEquals(List.of("react-native"), SKILLS.findAll("React  Native apps"));
+		assertEquals(List.of("react-native"), SKILLS.findAll("react\n\tnative"));
+		assertEquals(List.of(), SKILLS.findAll("ReactNative"));
+	}
+
+	@Test
+	void keywordsEndingInSymbolsMatch() {
+		assertEquals(List.of("cpp"), SKILLS.findAll("Modern C++ and STL"));
+	}
+
+	@Test
+	void reportsEachValueOnceInOrderOfFirstOccurrence() {
+		assertEquals(List.of("html", "java"), SKILLS.findAll("HTML, Java, html, java"));
+	}
+
+	@Test
+	void nonAsciiTextResetsTheScan() {
+		assertEquals(List.of("java"), SKILLS.findAll("café Java naïve"));
+	}
+
+	@Test
+	void rejectsBlankAndNonAsciiKeywords() {
+		assertThrows(IllegalArgumentException.class, () -> KeywordAutomaton.<String>builder().add("  ", "x"));
+		assertThrows(IllegalArgumentException.class, () -> KeywordAutomaton.<String>builder().add("Café", "x"));
+	}
+}
@@ -0,0 +1,136 @@
+package dereck.angeles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreHistogramTest {
+
+	private static ScoreHistogram of(int... scores) {
+		ScoreHistogram histogram = new ScoreHistogram();
+		for (int score : scores) {
+			histogram.record(score);
+		}
+		return histogram;
+	}
+
+	@Test
+	void ranksAndQuantilesOfRecordedScores() {
+		ScoreHistogram histogram = of(10, 20, 20, 30, 40);
+
+		assertEquals(0.0, histogram.rankBelow(10));
+		assertEquals(0.2, histogram.rankBelow(20), 1e-9);
+		assertEquals(0.6, histogram.rankBelow(21), 1e-9);
+		assertEquals(1.0, histogram.rankBelow(41), 1e-9);
+
+		assertEquals(10, histogram.quantile(0));
+		assertEquals(20, histogram.quantile(0.5));
+		assertEquals(30, histogram.quantile(0.8));
+		assertEquals(40, histogram.quantile(1));
+		// Out-of-range q is clamped
+		assertEquals(40, histogram.quantile(7));
+	}
+
+	@Test
+	void emptyHistogramHasNoRankOrQuantile() {
+		ScoreHistogram histogram = new ScoreHistogram();
+		assertTrue(histogram.isEmpty());
+		assertEquals(0, histogram.total());
+		assertEquals(0.0, histogram.rankBelow(50));
+		assertEquals(-1, histogram.quantile(0.5));
+	}
+
+	@Test
+	void negativeCountersCountAsZero() {
+		ScoreHistogram histogram = of(50, 60);
+		// A delta removing scores this histogram never had
+		histogram.remove(10);
+		histogram.remove(10);
+
+		assertFalse(histogram.isEmpty());
+		assertEquals(2, histogram.total());
+		assertEquals(0.0, histogram.rankBelow(50));
+		assertEquals(0.5, histogram.rankBelow(60), 1e-9);
+		assertEquals(50, histogram.quantile(0.5));
+		assertEquals(60, histogram.quantile(1));
+
+		// Only negative counters: nothing recorded as far as ranks go
+		ScoreHistogram onlyRemovals = new ScoreHistogram();
+		onlyRemovals.remove(30);
+		assertEquals(0, onlyRemovals.total());
+		assertEquals(-1, onlyRemovals.quantile(0.5));
+		assertEquals(0.0, onlyRemovals.rankBelow(100));
+	}
+
+	@Test
+	void mergingADeltaAppliesRemovals() {
+		ScoreHistogram base = of(40, 40, 90);
+		ScoreHistogram delta = new ScoreHistogram();
+		delta.remove(40);
+		delta.record(70);
+
+		base.merge(delta);
+		assertArrayEquals(of(40, 70, 90).toBytes(), base.toBytes());
+	}
+
+	@Test
+	void clampNegativeResetsOnlyNegativeCounters() {
+		ScoreHistogram histogram = of(20, 20);
+		histogram.remove(80);
+		histogram.clampNegative();
+
+		assertArrayEquals(of(20, 20).toBytes(), histogram.toBytes());
+		// After clamping, recording the removed score counts from zero
+		histogram.record(80);
+		assertEquals(0.0, histogram.rankBelow(20));
+		assertEquals(80, histogram.quantile(1));
+		assertEquals(3, histogram.total());
+	}
+
+	@Test
+	void roundTripsThroughBytesIncludingNegativeCounters() {
+		ScoreHistogram histogram = of(0, 0, 55, 100);
+		histogram.record(99, 1L << 40);
+		histogram.remove(3);
+
+		byte[] bytes = histogram.toBytes();
+		ScoreHistogram read = ScoreHistogram.fromBytes(bytes);
+		assertArrayEquals(bytes, read.toBytes());
+		assertEquals(histogram.total(), read.total());
+		assertEquals(histogram.quantile(0.5), read.quantile(0.5));
+
+		// Counters of zero are not written
+		assertEquals(8 + 5 * 9, bytes.length);
+	}
+
+	@Test
+	void emptyInputReadsAsAnEmptyHistogram() {
+		assertTrue(ScoreHistogram.fromBytes(null).isEmpty());
+		assertTrue(ScoreHistogram.fromBytes(new byte[0]).isEmpty());
+		assertTrue(ScoreHistogram.fromBytes(new ScoreHistogram().toBytes()).isEmpty());
+	}
+
+	@Test
+	void rejectsTruncatedOrUnknownInput() {
+		byte[] bytes = of(42).toBytes();
+		assertThrows(IllegalArgumentException.class,
+								 () -> ScoreHistogram.fromBytes(Arrays.copyOf(bytes, bytes.length - 1)));
+
+		byte[] wrongVersion = bytes.clone();
+		wrongVersion[3] = 2;
+		assertThrows(IllegalArgumentException.class, () -> ScoreHistogram.fromBytes(wrongVersion));
+	}
+
+	@Test
+	void rejectsScoresOutOfRange() {
+		ScoreHistogram histogram = new ScoreHistogram();
+		assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+		assertThrows(IllegalArgumentException.class, () -> histogram.record(101));
+	}
+}
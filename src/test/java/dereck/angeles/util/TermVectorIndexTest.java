@@ -0,0 +1,110 @@
+package dereck.angeles.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TermVectorIndexTest {
+
+	private static final int K = 10;
+
+	private static List<Integer> docs(List<TermVectorIndex.Hit> hits) {
+		return hits.stream().map(TermVectorIndex.Hit::doc).toList();
+	}
+
+	@Test
+	void putAgainReplacesTheOldTerms() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "Kafka streams");
+		index.put(1, "Postgres indexes");
+		index.put(2, "Redis cache");
+		index.put(0, "Docker images");
+
+		assertEquals(3, index.size());
+		assertEquals(List.of(), index.topK("kafka", K, doc -> true));
+		assertEquals(List.of(0), docs(index.topK("docker", K, doc -> true)));
+	}
+
+	@Test
+	void removeDropsTheDocumentFromEveryPosting() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "Kafka streams");
+		index.put(1, "Postgres streams indexes");
+		index.put(2, "Redis cache");
+		index.remove(1);
+
+		assertEquals(2, index.size());
+		assertEquals(List.of(), index.topK("postgres indexes", K, doc -> true));
+		assertEquals(List.of(0), docs(index.topK("streams", K, doc -> true)));
+		// Removing an unknown document is a no-op
+		index.remove(7);
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void ranksByCosineSimilarityBestFirst() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "Java Spring Boot microservices");
+		index.put(1, "Java collections");
+		index.put(2, "Rust ownership");
+		index.put(3, "Python Django");
+
+		List<TermVectorIndex.Hit> hits = index.topK("Spring microservices in Java", K, doc -> true);
+		assertEquals(List.of(0, 1), docs(hits));
+		assertTrue(hits.get(0).score() > hits.get(1).score());
+		assertEquals(List.of(0), docs(index.topK("Spring microservices in Java", 1, doc -> true)));
+	}
+
+	@Test
+	void sameTextScoresOne() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "Rust ownership");
+		index.put(1, "Go channels");
+
+		List<TermVectorIndex.Hit> hits = index.topK("rust ownership", K, doc -> true);
+		assertEquals(List.of(0), docs(hits));
+		assertEquals(1f, hits.get(0).score(), 1e-5f);
+	}
+
+	@Test
+	void skipsDocumentsRejectedByTheFilter() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "Java Spring");
+		index.put(1, "Java collections");
+		index.put(2, "Rust ownership");
+
+		assertEquals(List.of(1), docs(index.topK("java spring", K, doc -> doc != 0)));
+		assertEquals(List.of(), index.topK("java spring", K, doc -> false));
+	}
+
+	@Test
+	void ignoresStopWordsAndTermsInEveryDocument() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "What is a closure in JavaScript");
+		index.put(1, "What is a goroutine in Go");
+
+		assertEquals(List.of(), index.topK("what is in", K, doc -> true));
+		assertEquals(List.of(1), docs(index.topK("goroutine", K, doc -> true)));
+	}
+
+	@Test
+	void keepsPlusAndHashSuffixes() {
+		TermVectorIndex index = new TermVectorIndex();
+		index.put(0, "C++ templates");
+		index.put(1, "C# generics");
+		index.put(2, "C pointers");
+
+		assertEquals(List.of(0), docs(index.topK("c++", K, doc -> true)));
+		assertEquals(List.of(1), docs(index.topK("C#", K, doc -> true)));
+	}
+
+	@Test
+	void rejectsNegativeDocumentIds() {
+		TermVectorIndex index = new TermVectorIndex();
+		assertThrows(IllegalArgumentException.class, () -> index.put(-1, "text"));
+	}
+}